@@ -0,0 +1,115 @@
+package com.pdi_technologies.CRUD_presentation.admission;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// A limit on the requests in flight that follows the latency they see (AIMD). A request slower
+// than its cost's latency target means the database is queueing, mostly for Hikari connections,
+// and the limit is cut by backoffRatio; a fast one while the limit is at least half used raises
+// it by 1/limit, so about one per limit's worth of requests. Only requests admitted after the
+// last cut can cut it again, the ones already running were admitted under the old limit and
+// would otherwise collapse it in one burst.
+//
+// Expensive requests only get expensiveShare of the limit, the rest is kept for cheap ones, so
+// lookups of single todos still get through while list scans are being shed.
+//
+// Permits taken with measured=false count against the limit but their latency is no signal:
+// a stream, export or import runs as long as its data does, and would cut the limit every time.
+public class AdaptiveConcurrencyLimit {
+
+    private final AdmissionProperties.Limit properties;
+    private final long cheapLatencyNanos;
+    private final long expensiveLatencyNanos;
+    private final LongSupplier nanoTime;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private long lastCutAt = Long.MIN_VALUE; // guarded by this
+
+    public AdaptiveConcurrencyLimit(AdmissionProperties.Limit properties, LongSupplier nanoTime,
+            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.cheapLatencyNanos = properties.cheapLatency().toNanos();
+        this.expensiveLatencyNanos = properties.expensiveLatency().toNanos();
+        this.nanoTime = nanoTime;
+        this.limit = Math.max(properties.min(), Math.min(properties.max(), properties.initial()));
+        Gauge.builder("todo.admission.limit", this, AdaptiveConcurrencyLimit::limit)
+                .description("Requests allowed in flight at once")
+                .register(meterRegistry);
+        Gauge.builder("todo.admission.in.flight", inFlight, AtomicInteger::get)
+                .description("Admitted requests in flight")
+                .register(meterRegistry);
+    }
+
+    // null when the request has to be shed
+    public Permit tryAcquire(RequestCost cost) {
+        return tryAcquire(cost, true);
+    }
+
+    public Permit tryAcquire(RequestCost cost, boolean measured) {
+        int max = cost == RequestCost.CHEAP
+                ? (int) limit
+                : Math.max(1, (int) (limit * properties.expensiveShare()));
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= max) {
+                return null;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return new Permit(cost, measured, nanoTime.getAsLong(), current + 1);
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private void onComplete(Permit permit, long now) {
+        inFlight.decrementAndGet();
+        if (!permit.measured) {
+            return;
+        }
+        long latency = now - permit.admittedAt;
+        long target = permit.cost == RequestCost.CHEAP ? cheapLatencyNanos : expensiveLatencyNanos;
+        synchronized (this) {
+            if (latency > target) {
+                if (permit.admittedAt > lastCutAt) {
+                    limit = Math.max(properties.min(), limit * properties.backoffRatio());
+                    lastCutAt = now;
+                }
+            } else if (permit.inFlightAtAdmission * 2 >= limit) {
+                limit = Math.min(properties.max(), limit + 1 / limit);
+            }
+        }
+    }
+
+    public final class Permit {
+
+        private final RequestCost cost;
+        private final boolean measured;
+        private final long admittedAt;
+        private final int inFlightAtAdmission;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(RequestCost cost, boolean measured, long admittedAt, int inFlightAtAdmission) {
+            this.cost = cost;
+            this.measured = measured;
+            this.admittedAt = admittedAt;
+            this.inFlightAtAdmission = inFlightAtAdmission;
+        }
+
+        // idempotent, a request that went async may end on more than one path
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                onComplete(this, nanoTime.getAsLong());
+            }
+        }
+    }
+}
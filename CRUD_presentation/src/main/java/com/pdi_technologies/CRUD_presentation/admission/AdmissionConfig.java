@@ -0,0 +1,32 @@
+package com.pdi_technologies.CRUD_presentation.admission;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// With todo.admission.enabled=true, AdmissionFilter rate limits each client and sheds requests
+// beyond the adaptive concurrency limit
+@Configuration
+@ConditionalOnProperty("todo.admission.enabled")
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionConfig {
+
+    @Bean
+    public ClientRateLimiter clientRateLimiter(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        ClientRateLimiter rateLimiter = new ClientRateLimiter(properties.client(), System::nanoTime);
+        Gauge.builder("todo.admission.clients", rateLimiter, ClientRateLimiter::clients)
+                .description("Clients with a rate limit bucket")
+                .register(meterRegistry);
+        return rateLimiter;
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimit adaptiveConcurrencyLimit(AdmissionProperties properties,
+            MeterRegistry meterRegistry) {
+        return new AdaptiveConcurrencyLimit(properties.limit(), System::nanoTime, meterRegistry);
+    }
+}
@@ -0,0 +1,157 @@
+package com.pdi_technologies.CRUD_presentation.admission;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Admission control for the API, ahead of every other filter so a rejected request costs next
+// to nothing. A client over its rate gets 429, a request beyond the concurrency limit 503, both
+// with Retry-After and without queueing. Lookups of a single todo, creates and /stats are
+// cheap, everything else (lists, queries, search, export, import, batches) is expensive: it
+// takes more of the client's tokens and is shed before cheap requests are.
+//
+// The change feed is rate limited but holds no concurrency slot, its stream stays open for
+// minutes while costing nothing. Streamed and other async responses hold theirs until they end;
+// /stream, /export and /import take as long as the data they move, so their latency is left out
+// of the adaptive limit.
+//
+// Clients are told apart by remote address. key-header, when set, takes precedence, and any
+// client can send any value in it: set it only when a proxy in front authenticates the client
+// and sets (or overwrites) that header, otherwise a client gets a fresh bucket per value it makes up.
+@Component
+@ConditionalOnProperty("todo.admission.enabled")
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final Pattern SINGLE_TODO = Pattern.compile("/api/todos/\\d+");
+    private static final String CHANGE_FEED = "/api/todos/changes";
+    private static final Set<String> BULK_TRANSFERS = Set.of("/api/todos/stream", "/api/todos/export",
+            "/api/todos/import");
+    private static final long OVERLOAD_RETRY_AFTER_SECONDS = 1;
+
+    private final ClientRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final MeterRegistry meterRegistry;
+    private final String clientKeyHeader;
+
+    public AdmissionFilter(ClientRateLimiter rateLimiter, AdaptiveConcurrencyLimit concurrencyLimit,
+            MeterRegistry meterRegistry, AdmissionProperties properties) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimit = concurrencyLimit;
+        this.meterRegistry = meterRegistry;
+        this.clientKeyHeader = properties.client().keyHeader();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestCost cost = cost(request);
+        long waitNanos = rateLimiter.tryAcquire(client(request), cost);
+        if (waitNanos > 0) {
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, "rate-limit", cost,
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999)));
+            return;
+        }
+        if (CHANGE_FEED.equals(request.getRequestURI())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        AdaptiveConcurrencyLimit.Permit permit = concurrencyLimit.tryAcquire(cost,
+                !BULK_TRANSFERS.contains(request.getRequestURI()));
+        if (permit == null) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, "overload", cost, OVERLOAD_RETRY_AFTER_SECONDS);
+            return;
+        }
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            async = request.isAsyncStarted();
+            if (async) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(permit));
+            }
+        } finally {
+            if (!async) {
+                permit.release();
+            }
+        }
+    }
+
+    private String client(HttpServletRequest request) {
+        if (!clientKeyHeader.isEmpty()) {
+            String key = request.getHeader(clientKeyHeader);
+            if (key != null && !key.isBlank()) {
+                return "key:" + key;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static RequestCost cost(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String method = request.getMethod();
+        if (SINGLE_TODO.matcher(uri).matches()
+                || ("POST".equals(method) && "/api/todos".equals(uri))
+                || ("GET".equals(method) && ("/api/todos/stats".equals(uri) || CHANGE_FEED.equals(uri)))) {
+            return RequestCost.CHEAP;
+        }
+        return RequestCost.EXPENSIVE;
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String reason, RequestCost cost,
+            long retryAfterSeconds) throws IOException {
+        Counter.builder("todo.admission.rejected")
+                .description("API requests turned away by admission control")
+                .tag("reason", reason)
+                .tag("cost", cost.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry)
+                .increment();
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.sendError(status.value());
+    }
+
+    private record ReleaseOnCompletion(AdaptiveConcurrencyLimit.Permit permit) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.pdi_technologies.CRUD_presentation.admission;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+// todo.admission.*
+@ConfigurationProperties("todo.admission")
+public record AdmissionProperties(
+        boolean enabled,
+        @DefaultValue Client client,
+        @DefaultValue Limit limit) {
+
+    // Per-client token buckets. A cheap request takes one token, an expensive one expensiveCost.
+    // Clients are told apart by remote address, or by keyHeader when it is set; that header is
+    // trusted as is, so only for a proxy that authenticates clients and sets it.
+    public record Client(
+            @DefaultValue("50") double rate, // tokens added per second
+            @DefaultValue("100") int burst, // bucket size
+            @DefaultValue("5") int expensiveCost,
+            @DefaultValue("") String keyHeader,
+            @DefaultValue("100000") long maxClients,
+            @DefaultValue("10m") Duration idleTimeout) {
+    }
+
+    // The adaptive limit on requests in flight across all clients
+    public record Limit(
+            @DefaultValue("20") int initial,
+            @DefaultValue("4") int min,
+            @DefaultValue("200") int max,
+            @DefaultValue("0.9") double backoffRatio,
+            @DefaultValue("0.75") double expensiveShare,
+            @DefaultValue("100ms") Duration cheapLatency,
+            @DefaultValue("2s") Duration expensiveLatency) {
+    }
+}
@@ -0,0 +1,61 @@
+package com.pdi_technologies.CRUD_presentation.admission;
+
+import java.util.function.LongSupplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// A token bucket per client. Buckets of clients that have gone quiet expire, and the number of
+// buckets is bounded so a flood of distinct addresses can't exhaust the heap; an evicted client
+// just starts again with a full bucket.
+public class ClientRateLimiter {
+
+    private final Cache<String, TokenBucket> buckets;
+    private final double tokensPerNano;
+    private final int burst;
+    private final int expensiveCost;
+    private final LongSupplier nanoTime;
+
+    public ClientRateLimiter(AdmissionProperties.Client properties, LongSupplier nanoTime) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.maxClients())
+                .expireAfterAccess(properties.idleTimeout())
+                .build();
+        this.tokensPerNano = properties.rate() / 1_000_000_000d;
+        this.burst = properties.burst();
+        this.expensiveCost = Math.min(properties.expensiveCost(), properties.burst());
+        this.nanoTime = nanoTime;
+    }
+
+    // 0 when the client may go ahead, otherwise how many nanoseconds until it has the tokens
+    public long tryAcquire(String client, RequestCost cost) {
+        long now = nanoTime.getAsLong();
+        TokenBucket bucket = buckets.get(client, key -> new TokenBucket(burst, now));
+        return bucket.tryTake(cost == RequestCost.CHEAP ? 1 : expensiveCost, now);
+    }
+
+    public long clients() {
+        return buckets.estimatedSize();
+    }
+
+    private final class TokenBucket {
+
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.refilledAt = now;
+        }
+
+        synchronized long tryTake(int cost, long now) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+            if (tokens >= cost) {
+                tokens -= cost;
+                return 0;
+            }
+            return (long) Math.ceil((cost - tokens) / tokensPerNano);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.pdi_technologies.CRUD_presentation.admission;
+
+// How much database work a request is expected to cause. Cheap requests touch a single todo or
+// a counter, expensive ones scan, sort or stream lists and are shed first.
+public enum RequestCost {
+    CHEAP,
+    EXPENSIVE
+}
@@ -0,0 +1,80 @@
+package com.pdi_technologies.CRUD_presentation.archive;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pdi_technologies.CRUD_presentation.domain.ArchivedTodo;
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.CRUD_presentation.repository.TodoRepository;
+import com.pdi_technologies.CRUD_presentation.tenant.TenantContext;
+
+import jakarta.persistence.EntityManager;
+
+// Moves todos completed longer than todo.archive.after ago out of the todo table into
+// archived_todo, for every tenant. Each chunk of chunk-size todos is locked, copied and deleted
+// in its own short transaction, so no lock is held for longer than one chunk takes and
+// concurrent writes to other todos go ahead. The deletes go through the entity listener, so the
+// caches and read models drop the archived todos like any other delete.
+@Component
+public class TodoArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoArchiver.class);
+
+    private final TodoRepository todoRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration after;
+    private final int chunkSize;
+
+    public TodoArchiver(TodoRepository todoRepository, EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            @Value("${todo.archive.after:30d}") Duration after,
+            @Value("${todo.archive.chunk-size:500}") int chunkSize) {
+        this.todoRepository = todoRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.after = after;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(cron = "${todo.archive.cron:0 30 2 * * *}")
+    public void archive() {
+        int archived = archiveCompletedBefore(LocalDateTime.now().minus(after));
+        if (archived > 0) {
+            log.info("Archived {} todos completed more than {} ago", archived, after);
+        }
+    }
+
+    // returns how many todos were moved
+    public int archiveCompletedBefore(LocalDateTime cutoff) {
+        return TenantContext.callAs(TenantContext.ROOT, () -> {
+            int archived = 0;
+            int moved;
+            do {
+                moved = transactionTemplate.execute(status -> moveChunk(cutoff));
+                archived += moved;
+            } while (moved == chunkSize);
+            return archived;
+        });
+    }
+
+    private int moveChunk(LocalDateTime cutoff) {
+        List<Todo> todos = todoRepository.findCompletedBefore(cutoff, Limit.of(chunkSize));
+        LocalDateTime now = LocalDateTime.now();
+        for (Todo todo : todos) {
+            entityManager.persist(ArchivedTodo.of(todo, now));
+        }
+        todoRepository.deleteAll(todos);
+        return todos.size();
+    }
+}
@@ -0,0 +1,60 @@
+package com.pdi_technologies.CRUD_presentation.cache;
+
+import java.time.LocalDate;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.pdi_technologies.CRUD_presentation.domain.TodoSnapshot;
+import com.pdi_technologies.CRUD_presentation.event.TodoChangeTracker;
+import com.pdi_technologies.CRUD_presentation.event.TodoChangedEvent;
+
+// Evicts exactly the cache entries a committed change can affect: the todo itself and the
+// query results keyed by its old and new priority / completed values, all within the todo's
+// tenant. The overdue list is only touched when the todo was or is overdue.
+@Component
+public class TodoCacheInvalidator {
+
+    private final Cache todoById;
+    private final Cache todosByPriority;
+    private final Cache todosByCompleted;
+    private final Cache overdueTodos;
+
+    public TodoCacheInvalidator(CacheManager cacheManager) {
+        this.todoById = cacheManager.getCache(TodoCaches.TODO_BY_ID);
+        this.todosByPriority = cacheManager.getCache(TodoCaches.TODOS_BY_PRIORITY);
+        this.todosByCompleted = cacheManager.getCache(TodoCaches.TODOS_BY_COMPLETED);
+        this.overdueTodos = cacheManager.getCache(TodoCaches.OVERDUE_TODOS);
+    }
+
+    // once the change counter has moved, see VersionCheckedCaffeineCache
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(TodoChangeTracker.ORDER + 10)
+    public void onTodoChanged(TodoChangedEvent event) {
+        String tenantId = event.tenantId();
+        evictTodo(tenantId, event.id());
+        LocalDate today = LocalDate.now();
+        for (TodoSnapshot todo : new TodoSnapshot[] {event.previous(), event.current()}) {
+            if (todo == null) {
+                continue;
+            }
+            todosByPriority.evict(new TodoCacheKey(tenantId, todo.priority()));
+            todosByCompleted.evict(new TodoCacheKey(tenantId, todo.completed()));
+            if (isOverdue(todo, today)) {
+                overdueTodos.evict(new TodoCacheKey(tenantId, today));
+            }
+        }
+    }
+
+    // for writes whose change event comes later than the write is visible by id (write-behind)
+    public void evictTodo(String tenantId, Long id) {
+        todoById.evict(new TodoCacheKey(tenantId, id));
+    }
+
+    private static boolean isOverdue(TodoSnapshot todo, LocalDate today) {
+        return !todo.completed() && todo.dueDate() != null && !todo.dueDate().isAfter(today);
+    }
+}
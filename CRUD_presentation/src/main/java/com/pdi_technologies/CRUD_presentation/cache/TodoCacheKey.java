@@ -0,0 +1,12 @@
+package com.pdi_technologies.CRUD_presentation.cache;
+
+import com.pdi_technologies.CRUD_presentation.tenant.TenantContext;
+
+// Every cache entry belongs to one tenant: the same id, priority or day means different todos
+// for different tenants
+public record TodoCacheKey(String tenantId, Object key) {
+
+    public static TodoCacheKey of(Object key) {
+        return new TodoCacheKey(TenantContext.current(), key);
+    }
+}
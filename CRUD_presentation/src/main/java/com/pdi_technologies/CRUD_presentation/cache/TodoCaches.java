@@ -0,0 +1,67 @@
+package com.pdi_technologies.CRUD_presentation.cache;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pdi_technologies.CRUD_presentation.event.TodoChangeTracker;
+
+// Read-through caches in front of TodoService. Single todos are bounded by entry count, query
+// results by the total number of todos they hold so one huge list can't crowd out the rest.
+// Statistics are recorded so Actuator publishes cache.gets / cache.evictions per cache. Entries
+// are only filled by reads no write has committed during, see VersionCheckedCaffeineCache.
+@Configuration
+@EnableCaching
+public class TodoCaches {
+
+    public static final String TODO_BY_ID = "todoById";
+    public static final String TODOS_BY_PRIORITY = "todosByPriority";
+    public static final String TODOS_BY_COMPLETED = "todosByCompleted";
+    public static final String OVERDUE_TODOS = "overdueTodos";
+    public static final String TENANT_KEY_GENERATOR = "tenantKeyGenerator";
+
+    // the method arguments, scoped to the current tenant
+    @Bean(TENANT_KEY_GENERATOR)
+    public KeyGenerator tenantKeyGenerator() {
+        return (target, method, params) -> TodoCacheKey.of(SimpleKeyGenerator.generateKey(params));
+    }
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${todo.cache.entity.max-size:10000}") long entityMaxSize,
+            @Value("${todo.cache.entity.ttl:10m}") Duration entityTtl,
+            @Value("${todo.cache.query.max-todos:100000}") long queryMaxTodos,
+            @Value("${todo.cache.query.ttl:1m}") Duration queryTtl,
+            TodoChangeTracker changeTracker) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new VersionCheckedCaffeineCache(name, cache, isAllowNullValues(), changeTracker);
+            }
+        };
+        cacheManager.registerCustomCache(TODO_BY_ID, Caffeine.newBuilder()
+                .maximumSize(entityMaxSize)
+                .expireAfterWrite(entityTtl)
+                .recordStats()
+                .build());
+        for (String name : List.of(TODOS_BY_PRIORITY, TODOS_BY_COMPLETED, OVERDUE_TODOS)) {
+            cacheManager.registerCustomCache(name, Caffeine.newBuilder()
+                    .maximumWeight(queryMaxTodos)
+                    .weigher((Object key, Object value) -> value instanceof List<?> todos ? Math.max(1, todos.size()) : 1)
+                    .expireAfterWrite(queryTtl)
+                    .recordStats()
+                    .build());
+        }
+        return cacheManager;
+    }
+}
@@ -0,0 +1,45 @@
+package com.pdi_technologies.CRUD_presentation.cache;
+
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.pdi_technologies.CRUD_presentation.event.TodoChangeTracker;
+
+// A read that missed the cache, queried the database before a write committed and puts its
+// result after that write's eviction would keep the old state cached for a whole TTL. A miss
+// therefore notes the tenant's change counter, and the put that follows it is skipped when a
+// write to the tenant's todos has committed in between; the next read fills the entry instead.
+class VersionCheckedCaffeineCache extends CaffeineCache {
+
+    private record Miss(Object key, long version) {
+    }
+
+    private final TodoChangeTracker changeTracker;
+    private final ThreadLocal<Miss> miss = new ThreadLocal<>();
+
+    VersionCheckedCaffeineCache(String name, Cache<Object, Object> cache, boolean allowNullValues,
+            TodoChangeTracker changeTracker) {
+        super(name, cache, allowNullValues);
+        this.changeTracker = changeTracker;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper value = super.get(key);
+        if (value == null && key instanceof TodoCacheKey todoKey) {
+            miss.set(new Miss(key, changeTracker.version(todoKey.tenantId())));
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Miss loaded = miss.get();
+        miss.remove();
+        if (loaded != null && loaded.key().equals(key)
+                && changeTracker.version(((TodoCacheKey) key).tenantId()) != loaded.version()) {
+            return;
+        }
+        super.put(key, value);
+    }
+}
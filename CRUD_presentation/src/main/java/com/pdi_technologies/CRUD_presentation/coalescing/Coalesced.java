@@ -0,0 +1,13 @@
+package com.pdi_technologies.CRUD_presentation.coalescing;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marks a read whose result only depends on its arguments, the tenant and the tenant's todos.
+// Identical concurrent calls then share one execution, see SingleFlight.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Coalesced {
+}
@@ -0,0 +1,45 @@
+package com.pdi_technologies.CRUD_presentation.coalescing;
+
+import java.util.Arrays;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+
+import com.pdi_technologies.CRUD_presentation.event.TodoChangeTracker;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// With todo.coalescing.enabled=true, calls to @Coalesced methods go through SingleFlight. The
+// advice wraps the transaction and cache advice, so callers that wait for a running call don't
+// open a transaction or hold a connection while they wait.
+@Configuration
+@ConditionalOnProperty("todo.coalescing.enabled")
+public class CoalescingConfig {
+
+    @Bean
+    public SingleFlight singleFlight(TodoChangeTracker changeTracker, MeterRegistry meterRegistry) {
+        return new SingleFlight(changeTracker, meterRegistry);
+    }
+
+    // static and taking a provider, advisors are created before the beans they advise
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor coalescingAdvisor(ObjectProvider<SingleFlight> singleFlight) {
+        MethodInterceptor interceptor = invocation -> singleFlight.getObject().execute(
+                invocation.getMethod().getName(), Arrays.asList(invocation.getArguments().clone()),
+                invocation::proceed);
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(Coalesced.class), interceptor);
+        advisor.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return advisor;
+    }
+}
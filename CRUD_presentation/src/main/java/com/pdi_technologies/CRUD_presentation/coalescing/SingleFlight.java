@@ -0,0 +1,101 @@
+package com.pdi_technologies.CRUD_presentation.coalescing;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.pdi_technologies.CRUD_presentation.datasource.ReadYourWrites;
+import com.pdi_technologies.CRUD_presentation.event.TodoChangeTracker;
+import com.pdi_technologies.CRUD_presentation.tenant.TenantContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Collapses identical concurrent calls into one: the first caller runs the call, callers that
+// arrive while it is running wait for it and get the same result (or exception). Nothing is
+// kept once the call returns, so this only ever saves work during a burst, it is not a cache.
+//
+// A call is identical when the operation, arguments and tenant are, and the tenant's change
+// counter hasn't moved since the running call started: it read the counter before it ran its
+// query, so its result is at least as new as anything committed before the counter was read.
+// Once a write commits, callers start a new call instead of joining one that may have missed
+// the write. Clients pinned to the primary for read-your-writes only share calls among
+// themselves, and ROOT calls are never shared, no write bumps ROOT's counter.
+//
+// Every caller of a shared call gets the same object, so list results (and the field maps of
+// projected rows) are handed out unmodifiable: one caller can't reorder or trim another's.
+public class SingleFlight {
+
+    @FunctionalInterface
+    public interface Call {
+        Object call() throws Throwable;
+    }
+
+    private record Key(String tenantId, long version, boolean primary, String operation, List<Object> arguments) {
+    }
+
+    private final Map<Key, CompletableFuture<Object>> running = new ConcurrentHashMap<>();
+    private final TodoChangeTracker changeTracker;
+    private final MeterRegistry meterRegistry;
+
+    public SingleFlight(TodoChangeTracker changeTracker, MeterRegistry meterRegistry) {
+        this.changeTracker = changeTracker;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("todo.coalescing.running", running, Map::size)
+                .description("Distinct calls running with others waiting to share their result")
+                .register(meterRegistry);
+    }
+
+    // arguments must have value equality, null elements are fine
+    public Object execute(String operation, List<Object> arguments, Call call) throws Throwable {
+        String tenantId = TenantContext.current();
+        if (TenantContext.ROOT.equals(tenantId)) {
+            return call.call();
+        }
+        Key key = new Key(tenantId, changeTracker.version(tenantId), ReadYourWrites.isPinned(), operation,
+                arguments);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = running.putIfAbsent(key, flight);
+        if (existing != null) {
+            count(operation, "coalesced");
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause();
+            }
+        }
+        count(operation, "executed");
+        try {
+            Object result = unmodifiable(call.call());
+            flight.complete(result);
+            return result;
+        } catch (Throwable e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            running.remove(key, flight);
+        }
+    }
+
+    private static Object unmodifiable(Object result) {
+        if (!(result instanceof List<?> list)) {
+            return result;
+        }
+        return list.stream()
+                .map(element -> element instanceof Map<?, ?> row ? Collections.unmodifiableMap(row) : element)
+                .toList();
+    }
+
+    private void count(String operation, String result) {
+        Counter.builder("todo.coalescing.calls")
+                .description("Coalesced reads, executed or answered from an identical running call")
+                .tag("operation", operation)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+}
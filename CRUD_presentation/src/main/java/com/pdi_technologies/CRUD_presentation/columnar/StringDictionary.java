@@ -0,0 +1,77 @@
+package com.pdi_technologies.CRUD_presentation.columnar;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Dictionary encoding for a string column: each distinct value is stored once and rows hold its
+// int code. Codes are reference counted and reused once no row holds them, so the dictionary
+// stays as large as the number of distinct values in use, however often titles are edited.
+// Not thread safe, TodoColumnStore guards it.
+final class StringDictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final Deque<Integer> freeCodes = new ArrayDeque<>();
+    private String[] values = new String[64];
+    private String[] lowerCase = new String[64];
+    private int[] references = new int[64];
+    private int size;
+
+    // the code for value, taking a reference on it
+    int acquire(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = freeCodes.isEmpty() ? size++ : freeCodes.pop();
+            if (code == values.length) {
+                values = Arrays.copyOf(values, code * 2);
+                lowerCase = Arrays.copyOf(lowerCase, code * 2);
+                references = Arrays.copyOf(references, code * 2);
+            }
+            values[code] = value;
+            lowerCase[code] = value.toLowerCase(Locale.ROOT);
+            codes.put(value, code);
+        }
+        references[code]++;
+        return code;
+    }
+
+    void release(int code) {
+        if (--references[code] == 0) {
+            codes.remove(values[code]);
+            values[code] = null;
+            lowerCase[code] = null;
+            freeCodes.push(code);
+        }
+    }
+
+    String value(int code) {
+        return values[code];
+    }
+
+    // -1 when no row holds the value
+    int code(String value) {
+        Integer code = codes.get(value);
+        return code != null ? code : -1;
+    }
+
+    // the codes of the values containing the fragment, ignoring case like the LIKE it replaces;
+    // one pass over the distinct values rather than over the rows
+    BitSet containing(String fragment) {
+        String lower = fragment.toLowerCase(Locale.ROOT);
+        BitSet matching = new BitSet(size);
+        for (int code = 0; code < size; code++) {
+            if (lowerCase[code] != null && lowerCase[code].contains(lower)) {
+                matching.set(code);
+            }
+        }
+        return matching;
+    }
+
+    int size() {
+        return codes.size();
+    }
+}
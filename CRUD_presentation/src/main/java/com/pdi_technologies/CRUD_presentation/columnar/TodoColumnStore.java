@@ -0,0 +1,317 @@
+package com.pdi_technologies.CRUD_presentation.columnar;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.CRUD_presentation.domain.TodoSnapshot;
+import com.pdi_technologies.CRUD_presentation.event.RemovedTodos;
+import com.pdi_technologies.CRUD_presentation.event.TodoChangedEvent;
+import com.pdi_technologies.CRUD_presentation.event.TodoReadModel;
+import com.pdi_technologies.CRUD_presentation.repository.TodoQuery;
+import com.pdi_technologies.CRUD_presentation.tenant.TenantContext;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// The whole todo table, every tenant, as primitive columns: one row per todo at the same index
+// in each array, priority as a byte ordinal, completed as a bitset, the due date as an int epoch
+// day and title and tenant as dictionary codes. With todo.columnar.enabled the TodoService
+// filters are answered by scanning these arrays instead of querying the database.
+//
+// A scan reads only primitive arrays and writes matching row numbers into a per-thread buffer,
+// so filtering allocates nothing; only the returned todos are allocated. A buffer a large scan
+// grew past RETAINED_MATCHES is dropped afterwards rather than kept by every request thread.
+// Completed filters walk the bitset, title filters match each distinct title once and then
+// compare codes. Rows have no order, a delete moves the last row into the gap, so results are
+// sorted by id (or urgency) after the scan.
+@Component
+@ConditionalOnProperty(name = "todo.columnar.enabled", havingValue = "true")
+public class TodoColumnStore implements TodoReadModel {
+
+    public enum Order {
+        ID, // as the derived finders return them
+        URGENCY // most urgent first, then earliest due date, as queryTodos
+    }
+
+    private static final int NO_DUE_DATE = Integer.MIN_VALUE; // sorts first, as NULL does in ORDER BY
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private static final int RETAINED_MATCHES = 64 * 1024;
+    private static final ThreadLocal<int[]> MATCHES = ThreadLocal.withInitial(() -> new int[1024]);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> rowById = new HashMap<>();
+    private final RemovedTodos removed = new RemovedTodos();
+    private final StringDictionary tenants = new StringDictionary();
+    private final StringDictionary titles = new StringDictionary();
+    private final BitSet completed = new BitSet();
+    private int size;
+    private long[] ids = new long[1024];
+    private int[] tenantCodes = new int[1024];
+    private int[] titleCodes = new int[1024];
+    private byte[] priorities = new byte[1024];
+    private int[] dueDays = new int[1024];
+    private long[] createdAt = new long[1024];
+    private long[] completedAt = new long[1024];
+    private long[] versions = new long[1024];
+
+    public TodoColumnStore(MeterRegistry meterRegistry) {
+        Gauge.builder("todo.columnar.rows", this, store -> store.size)
+                .description("Todos held in the columnar read model")
+                .register(meterRegistry);
+        Gauge.builder("todo.columnar.titles", titles, StringDictionary::size)
+                .description("Distinct titles in the columnar read model's dictionary")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void apply(TodoChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowById.get(event.id());
+            if (event.current() == null) {
+                if (row != null) {
+                    remove(row);
+                }
+                // an update overtaken by the delete must not bring the row back
+                removed.add(event.id(), event.previous().version());
+            } else if (row == null) {
+                if (removed.isStale(event.current())) {
+                    return;
+                }
+                grow();
+                write(size++, event.current());
+                removed.forget(event.id());
+            } else if (event.current().version() <= versions[row]) {
+                // events of concurrent transactions can arrive out of commit order, or repeat
+                // what the initial load already read; the row holds a state at least as new
+                return;
+            } else {
+                releaseCodes(row);
+                write(row, event.current());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // the tenant's todos matching every filter of the query, at most limit of them in the given
+    // order; ROOT sees every tenant
+    public List<Todo> find(String tenantId, TodoQuery query, Order order, int limit) {
+        lock.readLock().lock();
+        try {
+            boolean everyTenant = TenantContext.ROOT.equals(tenantId);
+            int tenant = everyTenant ? -1 : tenants.code(tenantId);
+            if (tenant < 0 && !everyTenant) {
+                return List.of();
+            }
+            int priorityMask = 0;
+            if (query.priority() != null) {
+                for (Todo.Priority priority : query.priority()) {
+                    priorityMask |= 1 << priority.ordinal();
+                }
+            }
+            boolean dueFilter = query.dueFrom() != null || query.dueTo() != null;
+            int dueFrom = query.dueFrom() != null ? (int) query.dueFrom().toEpochDay() : NO_DUE_DATE + 1;
+            int dueTo = query.dueTo() != null ? (int) query.dueTo().toEpochDay() : Integer.MAX_VALUE;
+            BitSet titleMatches = query.title() != null && !query.title().isBlank()
+                    ? titles.containing(query.title())
+                    : null;
+            if (titleMatches != null && titleMatches.isEmpty()) {
+                return List.of();
+            }
+
+            int[] matches = MATCHES.get();
+            int count = 0;
+            Boolean completedFilter = query.completed();
+            for (int row = first(completedFilter); row < size; row = next(completedFilter, row + 1)) {
+                if ((!everyTenant && tenantCodes[row] != tenant)
+                        || (priorityMask != 0 && (priorityMask & (1 << priorities[row])) == 0)
+                        || (dueFilter && (dueDays[row] < dueFrom || dueDays[row] > dueTo))
+                        || (titleMatches != null && !titleMatches.get(titleCodes[row]))) {
+                    continue;
+                }
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, count * 2);
+                    MATCHES.set(matches);
+                }
+                matches[count++] = row;
+            }
+
+            sort(matches, 0, count, order);
+            int returned = Math.min(count, limit);
+            List<Todo> todos = new ArrayList<>(returned);
+            for (int i = 0; i < returned; i++) {
+                todos.add(toTodo(matches[i]));
+            }
+            if (matches.length > RETAINED_MATCHES) {
+                MATCHES.remove();
+            }
+            return todos;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int first(Boolean completedFilter) {
+        return next(completedFilter, 0);
+    }
+
+    // the next row from row on that can match the completed filter, size or more when there is none
+    private int next(Boolean completedFilter, int row) {
+        if (completedFilter == null) {
+            return row;
+        }
+        if (completedFilter) {
+            int set = completed.nextSetBit(row);
+            return set < 0 ? size : set;
+        }
+        return completed.nextClearBit(row);
+    }
+
+    private void write(int row, TodoSnapshot todo) {
+        ids[row] = todo.id();
+        tenantCodes[row] = tenants.acquire(Objects.requireNonNullElse(todo.tenantId(), TenantContext.DEFAULT));
+        titleCodes[row] = titles.acquire(todo.title());
+        priorities[row] = (byte) todo.priority().ordinal();
+        completed.set(row, todo.completed());
+        dueDays[row] = todo.dueDate() != null ? (int) todo.dueDate().toEpochDay() : NO_DUE_DATE;
+        createdAt[row] = epochNanos(todo.createdAt());
+        completedAt[row] = epochNanos(todo.completedAt());
+        versions[row] = todo.version();
+        rowById.put(todo.id(), row);
+    }
+
+    // fills the gap with the last row, so the live rows stay 0..size-1
+    private void remove(int row) {
+        releaseCodes(row);
+        rowById.remove(ids[row]);
+        int last = --size;
+        if (row != last) {
+            ids[row] = ids[last];
+            tenantCodes[row] = tenantCodes[last];
+            titleCodes[row] = titleCodes[last];
+            priorities[row] = priorities[last];
+            completed.set(row, completed.get(last));
+            dueDays[row] = dueDays[last];
+            createdAt[row] = createdAt[last];
+            completedAt[row] = completedAt[last];
+            versions[row] = versions[last];
+            rowById.put(ids[row], row);
+        }
+        completed.clear(last);
+    }
+
+    private void releaseCodes(int row) {
+        tenants.release(tenantCodes[row]);
+        titles.release(titleCodes[row]);
+    }
+
+    private void grow() {
+        if (size < ids.length) {
+            return;
+        }
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        tenantCodes = Arrays.copyOf(tenantCodes, capacity);
+        titleCodes = Arrays.copyOf(titleCodes, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+        dueDays = Arrays.copyOf(dueDays, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        completedAt = Arrays.copyOf(completedAt, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+    }
+
+    private Todo toTodo(int row) {
+        Todo todo = new Todo();
+        todo.setId(ids[row]);
+        todo.setTenantId(tenants.value(tenantCodes[row]));
+        todo.setTitle(titles.value(titleCodes[row]));
+        todo.setCompleted(completed.get(row));
+        todo.setCompletedAt(time(completedAt[row])); // after setCompleted, which would stamp now
+        todo.setCreatedAt(time(createdAt[row]));
+        todo.setPriority(Todo.Priority.values()[priorities[row]]);
+        todo.setDueDate(dueDays[row] != NO_DUE_DATE ? LocalDate.ofEpochDay(dueDays[row]) : null);
+        todo.setVersion(versions[row]);
+        return todo;
+    }
+
+    // Quicksort of row numbers comparing the primitive columns directly, so sorting allocates
+    // nothing either; rows are distinct todos, so no two compare equal.
+    private void sort(int[] rows, int from, int to, Order order) {
+        while (to - from > INSERTION_SORT_THRESHOLD) {
+            int pivot = rows[(from + to) >>> 1];
+            int i = from;
+            int j = to - 1;
+            while (i <= j) {
+                while (compare(rows[i], pivot, order) < 0) {
+                    i++;
+                }
+                while (compare(rows[j], pivot, order) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = rows[i];
+                    rows[i++] = rows[j];
+                    rows[j--] = swap;
+                }
+            }
+            // recurse into the smaller part, loop over the larger one
+            if (j + 1 - from < to - i) {
+                sort(rows, from, j + 1, order);
+                from = i;
+            } else {
+                sort(rows, i, to, order);
+                to = j + 1;
+            }
+        }
+        for (int i = from + 1; i < to; i++) {
+            int row = rows[i];
+            int j = i - 1;
+            while (j >= from && compare(rows[j], row, order) > 0) {
+                rows[j + 1] = rows[j];
+                j--;
+            }
+            rows[j + 1] = row;
+        }
+    }
+
+    private int compare(int a, int b, Order order) {
+        if (order == Order.URGENCY) {
+            int byPriority = Byte.compare(priorities[b], priorities[a]);
+            if (byPriority != 0) {
+                return byPriority;
+            }
+            int byDueDate = Integer.compare(dueDays[a], dueDays[b]);
+            if (byDueDate != 0) {
+                return byDueDate;
+            }
+        }
+        return Long.compare(ids[a], ids[b]);
+    }
+
+    private static long epochNanos(LocalDateTime time) {
+        return time == null ? NO_TIME : time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    private static LocalDateTime time(long epochNanos) {
+        return epochNanos == NO_TIME ? null : LocalDateTime.ofEpochSecond(
+                Math.floorDiv(epochNanos, 1_000_000_000L), (int) Math.floorMod(epochNanos, 1_000_000_000L),
+                ZoneOffset.UTC);
+    }
+}
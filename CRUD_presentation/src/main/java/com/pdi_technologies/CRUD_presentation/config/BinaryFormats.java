@@ -0,0 +1,84 @@
+package com.pdi_technologies.CRUD_presentation.config;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+// application/cbor and application/x-jackson-smile next to JSON, picked by the Accept header.
+// Both carry the same fields as the JSON, but enums are written as ordinals, dates as epoch days
+// and timestamps as epoch milliseconds (createdAt has no zone, it is read as UTC).
+@Configuration
+public class BinaryFormats {
+
+    public static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(cborMapper());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+        return new MappingJackson2SmileHttpMessageConverter(smileMapper());
+    }
+
+    public static ObjectMapper cborMapper() {
+        return compact(Jackson2ObjectMapperBuilder.cbor().build());
+    }
+
+    public static ObjectMapper smileMapper() {
+        return compact(Jackson2ObjectMapperBuilder.smile().build());
+    }
+
+    private static ObjectMapper compact(ObjectMapper objectMapper) {
+        SimpleModule numericDates = new SimpleModule("NumericDates")
+                .addSerializer(LocalDate.class, new JsonSerializer<>() {
+                    @Override
+                    public void serialize(LocalDate value, JsonGenerator gen, SerializerProvider serializers)
+                            throws IOException {
+                        gen.writeNumber(value.toEpochDay());
+                    }
+                })
+                .addDeserializer(LocalDate.class, new JsonDeserializer<>() {
+                    @Override
+                    public LocalDate deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+                        return LocalDate.ofEpochDay(p.getValueAsLong());
+                    }
+                })
+                .addSerializer(LocalDateTime.class, new JsonSerializer<>() {
+                    @Override
+                    public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider serializers)
+                            throws IOException {
+                        gen.writeNumber(value.toInstant(ZoneOffset.UTC).toEpochMilli());
+                    }
+                })
+                .addDeserializer(LocalDateTime.class, new JsonDeserializer<>() {
+                    @Override
+                    public LocalDateTime deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+                        return LocalDateTime.ofInstant(Instant.ofEpochMilli(p.getValueAsLong()), ZoneOffset.UTC);
+                    }
+                });
+        // registered last so it wins over the ISO-8601 serializers of the Java time module
+        return objectMapper.registerModule(numericDates)
+                .enable(SerializationFeature.WRITE_ENUMS_USING_INDEX);
+    }
+}
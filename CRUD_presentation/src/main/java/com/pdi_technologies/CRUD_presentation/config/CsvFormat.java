@@ -0,0 +1,44 @@
+package com.pdi_technologies.CRUD_presentation.config;
+
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+// text/csv for export and import: one todo per row under a header line, dates as ISO-8601 and
+// empty cells as null. Imports match columns by the header, so their order doesn't matter and
+// columns an import has no use for (id, version) are skipped.
+public final class CsvFormat {
+
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    public static final CsvSchema TODO_SCHEMA = CsvSchema.builder()
+            .addColumn("id")
+            .addColumn("title")
+            .addColumn("completed")
+            .addColumn("priority")
+            .addColumn("dueDate")
+            .addColumn("createdAt")
+            .addColumn("completedAt")
+            .addColumn("version")
+            .build()
+            .withHeader();
+
+    private static final CsvMapper MAPPER = CsvMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .build();
+
+    private CsvFormat() {
+    }
+
+    public static CsvMapper csvMapper() {
+        return MAPPER;
+    }
+}
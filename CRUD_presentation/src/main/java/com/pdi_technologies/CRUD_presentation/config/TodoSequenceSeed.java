@@ -0,0 +1,55 @@
+package com.pdi_technologies.CRUD_presentation.config;
+
+import java.sql.ResultSet;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+// Without Flyway (every profile but prod) ddl-auto=update creates the todo_seq table at 1 on a
+// database whose todos predate the sequence, and the first inserts would collide with their
+// ids. The prod migration that moves it past every id in use is run here as well, once the
+// entity manager factory (and with it the schema update) is up and before anything inserts.
+// Only the one-row table MySQL needs is seeded, a real sequence (H2Dialect) starts on an
+// empty database.
+@Component
+@ConditionalOnProperty(name = "spring.flyway.enabled", havingValue = "false")
+public class TodoSequenceSeed {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoSequenceSeed.class);
+
+    private static final String SCRIPT = "db/migration/V2__seed_todo_seq.sql";
+
+    private final DataSource dataSource;
+
+    // the factory only so the schema update has run
+    public TodoSequenceSeed(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        this.dataSource = dataSource;
+    }
+
+    @PostConstruct
+    public void seed() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        boolean table = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (ResultSet tables = connection.getMetaData().getTables(connection.getCatalog(), null, "todo_seq",
+                    new String[] {"TABLE"})) {
+                return tables.next();
+            }
+        }));
+        if (!table) {
+            return;
+        }
+        new ResourceDatabasePopulator(new ClassPathResource(SCRIPT)).execute(dataSource);
+        log.info("todo_seq at {}", jdbcTemplate.queryForObject("select next_val from todo_seq", Long.class));
+    }
+}
@@ -0,0 +1,28 @@
+package com.pdi_technologies.CRUD_presentation.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// spring.threads.virtual.enabled is silently ignored before Java 21, say so instead of leaving
+// a load test wondering why nothing changed
+@Component
+@ConditionalOnProperty("spring.threads.virtual.enabled")
+public class VirtualThreadsCheck {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadsCheck.class);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkJavaVersion() {
+        if (JavaVersion.getJavaVersion().isOlderThan(JavaVersion.TWENTY_ONE)) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads, "
+                    + "requests run on the platform thread pool", JavaVersion.getJavaVersion());
+        } else {
+            log.info("Request handling runs on virtual threads");
+        }
+    }
+}
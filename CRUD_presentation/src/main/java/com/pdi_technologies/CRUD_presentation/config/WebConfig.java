@@ -0,0 +1,22 @@
+package com.pdi_technologies.CRUD_presentation.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.pdi_technologies.CRUD_presentation.controller.ChangeTrackedInterceptor;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ChangeTrackedInterceptor changeTrackedInterceptor;
+
+    public WebConfig(ChangeTrackedInterceptor changeTrackedInterceptor) {
+        this.changeTrackedInterceptor = changeTrackedInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(changeTrackedInterceptor).addPathPatterns("/api/todos/**", "/api/todos");
+    }
+}
@@ -0,0 +1,16 @@
+package com.pdi_technologies.CRUD_presentation.controller;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marks a GET endpoint whose response only changes when the todo table does, so it can be
+// answered with 304 Not Modified from the table change counter without running the query.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@interface ChangeTracked {
+
+    // the response also depends on today's date (e.g. overdue todos)
+    boolean daily() default false;
+}
@@ -0,0 +1,63 @@
+package com.pdi_technologies.CRUD_presentation.controller;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.pdi_technologies.CRUD_presentation.event.TodoChangeTracker;
+import com.pdi_technologies.CRUD_presentation.tenant.TenantContext;
+import com.pdi_technologies.CRUD_presentation.tenant.TenantFilter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Conditional GET for @ChangeTracked endpoints. The ETag and Last-Modified come from the tenant's
+// change counter, so an unchanged list is answered before the handler (and the database) runs.
+// The counter is read before the query, so a write racing with the request can only make the
+// ETag older than the body, which costs the client one extra full response.
+//
+// Last-Modified only has one-second resolution: a client revalidating with If-Modified-Since
+// alone would get a 304 for a write in the same second as the one it had seen. It is therefore
+// only sent once the last change is a full second old, any later change then falls in a later
+// second; until then clients revalidate with the ETag.
+@Component
+public class ChangeTrackedInterceptor implements HandlerInterceptor {
+
+    private final TodoChangeTracker changeTracker;
+
+    public ChangeTrackedInterceptor(TodoChangeTracker changeTracker) {
+        this.changeTracker = changeTracker;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        ChangeTracked changeTracked = handlerMethod.getMethodAnnotation(ChangeTracked.class);
+        if (changeTracked == null) {
+            return true;
+        }
+        String tenantId = TenantContext.current();
+        String etag = changeTracker.etag(tenantId) + TodoETags.variant(request.getHeader(HttpHeaders.ACCEPT));
+        Instant lastModified = changeTracker.lastModified(tenantId);
+        if (changeTracked.daily()) {
+            LocalDate today = LocalDate.now();
+            etag += "-" + today;
+            Instant startOfDay = today.atStartOfDay(ZoneId.systemDefault()).toInstant();
+            lastModified = lastModified.isAfter(startOfDay) ? lastModified : startOfDay;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache"); // always revalidate
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        response.addHeader(HttpHeaders.VARY, TenantFilter.TENANT_HEADER);
+        boolean settled = lastModified.isBefore(Instant.now().minusSeconds(1));
+        return !new ServletWebRequest(request, response)
+                .checkNotModified("\"" + etag + "\"", settled ? lastModified.toEpochMilli() : -1);
+    }
+}
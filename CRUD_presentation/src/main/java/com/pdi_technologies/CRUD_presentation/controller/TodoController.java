@@ -1,33 +1,94 @@
 package com.pdi_technologies.CRUD_presentation.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
 
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.pdi_technologies.CRUD_presentation.config.CsvFormat;
 import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.CRUD_presentation.domain.TodoPatch;
+import com.pdi_technologies.CRUD_presentation.dto.BatchItemResult;
+import com.pdi_technologies.CRUD_presentation.dto.BulkPatchResult;
+import com.pdi_technologies.CRUD_presentation.dto.ImportResult;
+import com.pdi_technologies.CRUD_presentation.dto.TodoImportRow;
+import com.pdi_technologies.CRUD_presentation.dto.TodoStats;
+import com.pdi_technologies.CRUD_presentation.feed.TodoChangeFeed;
+import com.pdi_technologies.CRUD_presentation.repository.TodoField;
+import com.pdi_technologies.CRUD_presentation.repository.TodoQuery;
 import com.pdi_technologies.CRUD_presentation.service.TodoService;
+import com.pdi_technologies.CRUD_presentation.tenant.TenantContext;
+import com.pdi_technologies.CRUD_presentation.transfer.TodoImporter;
 
 @RestController
 @RequestMapping("/api/todos")
-@CrossOrigin(origins = "http://localhost:5173")
+// with credentials, so the React client keeps and sends back the read-your-writes cookie
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true",
+        exposedHeaders = {TodoController.NEXT_CURSOR_HEADER, HttpHeaders.ETAG})
+// read and written by hand in the import and streaming endpoints, a native image needs the hints
+@RegisterReflectionForBinding({Todo.class, TodoImportRow.class})
 public class TodoController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String NDJSON_VALUE = "application/x-ndjson";
+    static final String MERGE_PATCH_VALUE = "application/merge-patch+json";
+
     private final TodoService todoService;
+    private final TodoChangeFeed changeFeed;
+    private final TodoImporter todoImporter;
+    private final ObjectMapper objectMapper;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int maxBatchSize;
 
-    public TodoController(TodoService todoService) {
+    public TodoController(TodoService todoService, TodoChangeFeed changeFeed, TodoImporter todoImporter,
+            ObjectMapper objectMapper,
+            @Value("${todo.pagination.default-size:100}") int defaultPageSize,
+            @Value("${todo.pagination.max-size:1000}") int maxPageSize,
+            @Value("${todo.batch.max-size:1000}") int maxBatchSize) {
         this.todoService = todoService;
+        this.changeFeed = changeFeed;
+        this.todoImporter = todoImporter;
+        this.objectMapper = objectMapper;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxBatchSize = maxBatchSize;
     }
     
     // Create
@@ -36,29 +97,168 @@ public class TodoController {
         return ResponseEntity.ok(todoService.saveTodo(todo));
     }
 
-    // Read
+    // Batch create, update and delete, each in a single transaction with per-item results
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> createTodos(@RequestBody List<Todo> todos) {
+        return ResponseEntity.ok(todoService.createTodos(checkBatchSize(todos)));
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> updateTodos(@RequestBody List<Todo> todos) {
+        return ResponseEntity.ok(todoService.updateTodos(checkBatchSize(todos)));
+    }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> deleteTodos(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(todoService.deleteTodos(checkBatchSize(ids)));
+    }
+
+    // Read, one keyset page at a time. The next page is requested with the X-Next-Cursor value,
+    // which is absent on the last page.
+    //
+    // This and the list endpoints below take ?fields=title,completed to return only those fields
+    // (and id). Where the list is read from the table the query selects just those columns;
+    // where it comes from a cache or an in-memory index the loaded todos are trimmed.
     @GetMapping
-    public ResponseEntity<List<Todo>> getAllTodos() {
-        return ResponseEntity.ok(todoService.getAllTodos());
+    @ChangeTracked
+    public ResponseEntity<List<?>> getAllTodos(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        int pageSize = pageSize(size);
+        Long afterId = TodoCursor.decode(cursor);
+        if (fields != null) {
+            return page(todoService.getTodoFieldsAfter(afterId, parseFields(fields), pageSize + 1), pageSize,
+                    item -> (Long) item.get(TodoField.ID.attribute()));
+        }
+        return page(todoService.getTodosAfter(afterId, pageSize + 1), pageSize, Todo::getId);
+    }
+
+    // Read everything as newline-delimited JSON, memory use stays flat regardless of table size.
+    // The body is written on another thread, so the tenant is carried over explicitly.
+    @GetMapping(value = "/stream", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTodos() {
+        String tenantId = TenantContext.current();
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter writer = objectMapper.writerFor(Todo.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(out)) {
+                TenantContext.runAs(tenantId, () -> todoService.forEachTodo(todo -> {
+                    try {
+                        writer.write(todo);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(body);
+    }
+
+    // Export every todo as NDJSON (format=ndjson) or CSV (format=csv), read through the same
+    // cursor as /stream so memory stays flat however many todos there are
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTodos(@RequestParam(defaultValue = "ndjson") String format) {
+        boolean csv = switch (format) {
+            case "csv" -> true;
+            case "ndjson" -> false;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be ndjson or csv");
+        };
+        ObjectWriter writer = csv
+                ? CsvFormat.csvMapper().writerFor(Todo.class).with(CsvFormat.TODO_SCHEMA)
+                : objectMapper.writerFor(Todo.class).withRootValueSeparator("\n");
+        String tenantId = TenantContext.current();
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter values = writer.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE).writeValues(out)) {
+                TenantContext.runAs(tenantId, () -> todoService.forEachTodo(todo -> {
+                    try {
+                        values.write(todo);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(csv ? CsvFormat.TEXT_CSV : MediaType.parseMediaType(NDJSON_VALUE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=todos." + format)
+                .body(body);
     }
 
-    // Read by id
+    // Import NDJSON or CSV (as exported, with a header line) as new todos. The upload is parsed
+    // while it arrives and written in batched chunks; rows without a title are reported and skipped.
+    @PostMapping(value = "/import", consumes = {NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<ImportResult> importTodos(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        ObjectReader reader = CsvFormat.TEXT_CSV.isCompatibleWith(contentType)
+                ? CsvFormat.csvMapper().readerFor(TodoImportRow.class).with(CsvSchema.emptySchema().withHeader())
+                : objectMapper.readerFor(TodoImportRow.class);
+        try (MappingIterator<TodoImportRow> rows = reader.readValues(body)) {
+            return ResponseEntity.ok(todoImporter.importTodos(rows));
+        } catch (TodoImporter.MalformedImportException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // Server-Sent Events feed of CREATED / UPDATED / DELETED deltas. Reconnecting clients resume
+    // with Last-Event-ID (or ?lastEventId= on the first connect) and only get what they missed.
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) Long lastEventIdParam) {
+        return changeFeed.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam);
+    }
+
+    // Read by id, answers If-None-Match with 304 when the todo hasn't changed
     @GetMapping("/{id}")
-    public ResponseEntity<Todo> getTodoById(@PathVariable Long id) {
-        return ResponseEntity.ok(todoService.getTodoById(id).orElse(null));
+    public ResponseEntity<Todo> getTodoById(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return todoService.getTodoById(id)
+                .map(todo -> ResponseEntity.ok().eTag(TodoETags.of(todo, accept)).varyBy(HttpHeaders.ACCEPT).body(todo))
+                .orElseGet(() -> ResponseEntity.ok(null));
     }
 
-    // Update
+    // Update, with If-Match only applied if the todo is still at that version (412 otherwise)
     @PutMapping("/{id}")
-    public ResponseEntity<Todo> updateTodo(@PathVariable Long id, @RequestBody Todo todo) {
-        return ResponseEntity.ok(todoService.getTodoById(id)
-        .map(existingTodo -> {
-            existingTodo.setTitle(todo.getTitle());
-            existingTodo.setCompleted(todo.isCompleted());
-            existingTodo.setPriority(todo.getPriority());
-            existingTodo.setDueDate(todo.getDueDate());
-            return todoService.saveTodo(existingTodo);
-        }).orElse(null));
+    public ResponseEntity<Todo> updateTodo(@PathVariable Long id, @RequestBody Todo todo,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        Long requiredVersion = TodoETags.requiredVersion(ifMatch, id);
+        return todoService.updateTodo(id, todo, requiredVersion)
+                .map(updated -> ResponseEntity.ok().eTag(TodoETags.of(updated, accept)).body(updated))
+                .orElseGet(() -> {
+                    if (ifMatch != null) {
+                        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Todo " + id + " does not exist");
+                    }
+                    return ResponseEntity.ok(null);
+                });
+    }
+
+    // Partial update with a JSON Merge Patch, only the fields in the body change. If-Match works as for PUT.
+    @PatchMapping(value = "/{id}", consumes = {MERGE_PATCH_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Todo> patchTodo(@PathVariable Long id, @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        Long requiredVersion = TodoETags.requiredVersion(ifMatch, id);
+        return todoService.patchTodo(id, parsePatch(patch), requiredVersion)
+                .map(updated -> ResponseEntity.ok().eTag(TodoETags.of(updated, accept)).body(updated))
+                .orElseGet(() -> {
+                    if (ifMatch != null) {
+                        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Todo " + id + " does not exist");
+                    }
+                    return ResponseEntity.notFound().build();
+                });
+    }
+
+    // Merge patch every todo matching the /query filters in one UPDATE, e.g.
+    // PATCH /api/todos?priority=HIGH with {"completed": true}. At least one filter is required.
+    @PatchMapping(consumes = {MERGE_PATCH_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<BulkPatchResult> patchTodos(TodoQuery query, @RequestBody JsonNode patch) {
+        if (query.matchesAll()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A bulk patch needs at least one filter");
+        }
+        return ResponseEntity.ok(new BulkPatchResult(todoService.patchTodos(query, parsePatch(patch))));
     }
 
     // Delete
@@ -68,68 +268,196 @@ public class TodoController {
         return ResponseEntity.noContent().build();
     }
 
-    // Filter by completed status
+    // Filter by completed status, in id order. includeArchived=true is the completion history
+    // instead: the latest limit completed todos, archived ones included, latest completion first.
     @GetMapping("/completed")
-    public ResponseEntity<List<Todo>> filterByCompleted(@RequestParam boolean completed) {
-        return ResponseEntity.ok(todoService.getCompletedTodos(completed));
+    @ChangeTracked
+    public ResponseEntity<List<?>> filterByCompleted(@RequestParam boolean completed,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) {
+        if (completed && includeArchived) {
+            return trimmed(todoService.getCompletedTodosWithArchive(pageSize(limit)), fields);
+        }
+        return trimmed(todoService.getCompletedTodos(completed), fields);
     }
 
     // Filter by title
     @GetMapping("/title")
-    public ResponseEntity<List<Todo>> filterByTitle(@RequestParam String title) {
-        return ResponseEntity.ok(todoService.getTodosByTitle(title));
+    @ChangeTracked
+    public ResponseEntity<List<?>> filterByTitle(@RequestParam String title,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) {
+        return trimmed(todoService.getTodosByTitle(title, pageSize(limit)), fields);
+    }
+
+    // Full-text search over titles, ranked
+    @GetMapping("/search")
+    @ChangeTracked
+    public ResponseEntity<List<?>> searchTodos(@RequestParam("q") String query,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) {
+        return trimmed(todoService.searchTodos(query, pageSize(limit)), fields);
     }
 
     // Priority-based endpoints
     @GetMapping("/priority")
-    public ResponseEntity<List<Todo>> filterByPriority(@RequestParam Todo.Priority priority) {
-        return ResponseEntity.ok(todoService.getTodosByPriority(priority));
+    @ChangeTracked
+    public ResponseEntity<List<?>> filterByPriority(@RequestParam Todo.Priority priority,
+            @RequestParam(required = false) String fields) {
+        return trimmed(todoService.getTodosByPriority(priority), fields);
     }
 
     @GetMapping("/priority-completed")
-    public ResponseEntity<List<Todo>> filterByPriorityAndCompleted(
+    @ChangeTracked
+    public ResponseEntity<List<?>> filterByPriorityAndCompleted(
             @RequestParam Todo.Priority priority, 
-            @RequestParam boolean completed) {
+            @RequestParam boolean completed,
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(todoService.findTodoFields(
+                    new TodoQuery(completed, Set.of(priority), null, null, null), parseFields(fields)));
+        }
         return ResponseEntity.ok(todoService.getTodosByPriorityAndCompleted(priority, completed));
     }
 
     // Due date endpoints
     @GetMapping("/due-date")
-    public ResponseEntity<List<Todo>> filterByDueDate(
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueDate) {
+    @ChangeTracked
+    public ResponseEntity<List<?>> filterByDueDate(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueDate,
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(todoService.findTodoFields(
+                    new TodoQuery(null, null, dueDate, dueDate, null), parseFields(fields)));
+        }
         return ResponseEntity.ok(todoService.getTodosByDueDate(dueDate));
     }
 
     @GetMapping("/due-before")
-    public ResponseEntity<List<Todo>> filterByDueBefore(
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        return ResponseEntity.ok(todoService.getTodosDueBefore(date));
+    @ChangeTracked
+    public ResponseEntity<List<?>> filterByDueBefore(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) String fields) {
+        return trimmed(todoService.getTodosDueBefore(date), fields);
     }
 
     @GetMapping("/due-after")
-    public ResponseEntity<List<Todo>> filterByDueAfter(
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+    @ChangeTracked
+    public ResponseEntity<List<?>> filterByDueAfter(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(todoService.findTodoFields(
+                    new TodoQuery(null, null, date.plusDays(1), null, null), parseFields(fields)));
+        }
         return ResponseEntity.ok(todoService.getTodosDueAfter(date));
     }
 
     @GetMapping("/due-range")
-    public ResponseEntity<List<Todo>> filterByDateRange(
+    @ChangeTracked
+    public ResponseEntity<List<?>> filterByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        return ResponseEntity.ok(todoService.getTodosByDateRange(startDate, endDate));
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String fields) {
+        return trimmed(todoService.getTodosByDateRange(startDate, endDate), fields);
     }
 
     @GetMapping("/overdue")
-    public ResponseEntity<List<Todo>> getOverdueTodos() {
-        return ResponseEntity.ok(todoService.getOverdueTodos());
+    @ChangeTracked(daily = true)
+    public ResponseEntity<List<?>> getOverdueTodos(@RequestParam(required = false) String fields) {
+        return trimmed(todoService.getOverdueTodos(), fields);
+    }
+
+    // Dashboard counts by priority and status, plus overdue and due today
+    @GetMapping("/stats")
+    @ChangeTracked(daily = true)
+    public ResponseEntity<TodoStats> getStats() {
+        return ResponseEntity.ok(todoService.getStats());
     }
 
     // Combined filtering
     @GetMapping("/priority-due-date")
-    public ResponseEntity<List<Todo>> filterByPriorityAndDueDate(
+    @ChangeTracked
+    public ResponseEntity<List<?>> filterByPriorityAndDueDate(
             @RequestParam Todo.Priority priority,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueDate,
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(todoService.findTodoFields(
+                    new TodoQuery(null, Set.of(priority), dueDate, dueDate, null), parseFields(fields)));
+        }
         return ResponseEntity.ok(todoService.getTodosByPriorityAndDueDate(priority, dueDate));
     }
 
+    // Any mix of completed, priority (repeatable), dueFrom, dueTo and title
+    @GetMapping("/query")
+    @ChangeTracked
+    public ResponseEntity<List<?>> queryTodos(TodoQuery query, @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(todoService.queryTodoFields(query, parseFields(fields), pageSize(limit)));
+        }
+        return ResponseEntity.ok(todoService.queryTodos(query, pageSize(limit)));
+    }
+
+    @GetMapping("/sorted")
+    @ChangeTracked
+    public ResponseEntity<List<?>> getTodosSortedByPriorityAndDueDate(@RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(todoService.queryTodoFields(TodoQuery.ALL, parseFields(fields), pageSize(limit)));
+        }
+        return ResponseEntity.ok(todoService.queryTodos(TodoQuery.ALL, pageSize(limit)));
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleConcurrentModification(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(e.getMessage());
+    }
+
+    private TodoPatch parsePatch(JsonNode patch) {
+        try {
+            return TodoPatch.parse(patch, objectMapper);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private Set<TodoField> parseFields(String fields) {
+        try {
+            return TodoField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // the todos as loaded, or only the requested fields of them
+    private ResponseEntity<List<?>> trimmed(List<Todo> todos, String fields) {
+        return ResponseEntity.ok(fields == null ? todos : TodoField.project(todos, parseFields(fields)));
+    }
+
+    // one page out of pageSize + 1 items, with the cursor header when there is a next page
+    private <T> ResponseEntity<List<?>> page(List<T> items, int pageSize, Function<T, Long> id) {
+        if (items.size() <= pageSize) {
+            return ResponseEntity.ok(items);
+        }
+        List<T> page = items.subList(0, pageSize);
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, TodoCursor.encode(id.apply(page.get(pageSize - 1))))
+                .body(page);
+    }
+
+    private int pageSize(Integer requested) {
+        return Math.max(1, Math.min(requested == null ? defaultPageSize : requested, maxPageSize));
+    }
+
+    private <T> List<T> checkBatchSize(List<T> items) {
+        if (items.size() > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Batch size " + items.size() + " exceeds " + maxBatchSize);
+        }
+        return items;
+    }
+
 }
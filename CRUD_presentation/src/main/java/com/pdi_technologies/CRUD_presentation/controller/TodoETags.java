@@ -0,0 +1,80 @@
+package com.pdi_technologies.CRUD_presentation.controller;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.pdi_technologies.CRUD_presentation.config.BinaryFormats;
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+
+// Strong entity tags for single todos: "<id>-<version>", plus a suffix for binary representations
+final class TodoETags {
+
+    // in the order of the message converters, which decides between equally acceptable types
+    private static final List<MediaType> REPRESENTATIONS = List.of(MediaType.APPLICATION_JSON, BinaryFormats.SMILE,
+            MediaType.APPLICATION_CBOR);
+
+    private TodoETags() {
+    }
+
+    static String of(Todo todo, String accept) {
+        return "\"" + todo.getId() + "-" + todo.getVersion() + variant(accept) + "\"";
+    }
+
+    // the same todo or list as CBOR or Smile is a different byte sequence than the JSON, so it
+    // needs its own tag. The suffix is for the representation content negotiation picks for the
+    // Accept header: the highest quality wins, q=0 rules a type out, and on a tie the earlier
+    // range in the header, then the earlier converter (JSON for */*), as Spring MVC does.
+    static String variant(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return "";
+        }
+        List<MediaType> ranges;
+        try {
+            ranges = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return ""; // answered with the default representation, or rejected before it matters
+        }
+        MediaType chosen = MediaType.APPLICATION_JSON;
+        double best = 0;
+        for (MediaType range : ranges) {
+            for (MediaType representation : REPRESENTATIONS) {
+                if (range.getQualityValue() > best && range.includes(representation)) {
+                    chosen = representation;
+                    best = range.getQualityValue();
+                }
+            }
+        }
+        if (chosen.equals(MediaType.APPLICATION_CBOR)) {
+            return "-cbor";
+        }
+        return chosen.equals(BinaryFormats.SMILE) ? "-smile" : "";
+    }
+
+    // the version an If-Match header requires, null when there is no precondition ("*" or absent)
+    static Long requiredVersion(String ifMatch, Long id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            // weak tags never satisfy If-Match
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Weak ETags can't be used with If-Match");
+        }
+        tag = tag.replace("\"", "");
+        String prefix = id + "-";
+        try {
+            if (tag.startsWith(prefix)) {
+                String version = tag.substring(prefix.length());
+                int variant = version.indexOf('-');
+                return Long.parseLong(variant < 0 ? version : version.substring(0, variant));
+            }
+        } catch (NumberFormatException e) {
+            // fall through
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match does not match this todo");
+    }
+}
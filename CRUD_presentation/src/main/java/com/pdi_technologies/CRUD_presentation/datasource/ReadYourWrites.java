@@ -0,0 +1,40 @@
+package com.pdi_technologies.CRUD_presentation.datasource;
+
+import java.util.function.Supplier;
+
+// Marks the current thread as belonging to a client that has written recently, its reads then
+// go to the primary so they can't miss that write on a lagging replica
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static void pinToPrimary() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static boolean isPinned() {
+        return PINNED.get() != null;
+    }
+
+    // reads whose result outlives the request, such as the ones filling a cache, go to the primary:
+    // a lagging replica's answer would be served to every client until the entry expires. The
+    // connection is only taken on the first statement, so this works inside a read-only transaction.
+    public static <T> T onPrimary(Supplier<T> read) {
+        if (isPinned()) {
+            return read.get();
+        }
+        pinToPrimary();
+        try {
+            return read.get();
+        } finally {
+            clear();
+        }
+    }
+
+    public static void clear() {
+        PINNED.remove();
+    }
+}
@@ -0,0 +1,125 @@
+package com.pdi_technologies.CRUD_presentation.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Hands out replica connections to read-only transactions and primary connections to everything
+// else. Replicas are picked at random in proportion to their weight among those currently
+// healthy; one that fails to hand out a connection is taken out until the next health check
+// finds it working again, and the read falls back to the primary.
+//
+// The transaction's read-only flag is only set after the transaction manager asks for a
+// connection, so this has to sit behind a LazyConnectionDataSourceProxy.
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    public static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final int weight;
+        private volatile boolean healthy = true;
+
+        public Replica(String name, DataSource dataSource, int weight) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.weight = weight;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        void markHealthy(boolean healthy, Exception cause) {
+            if (this.healthy != healthy) {
+                if (healthy) {
+                    log.info("Replica {} is back, routing reads to it again", name);
+                } else {
+                    log.warn("Replica {} is unavailable, its reads go elsewhere: {}", name,
+                            cause != null ? cause.getMessage() : "connection not valid");
+                }
+            }
+            this.healthy = healthy;
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = chooseReplica();
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.markHealthy(false, e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    // null when the connection should come from the primary
+    Replica chooseReplica() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReadYourWrites.isPinned()) {
+            return null;
+        }
+        int totalWeight = 0;
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                totalWeight += replica.weight;
+            }
+        }
+        if (totalWeight <= 0) {
+            return null;
+        }
+        int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Replica replica : replicas) {
+            if (replica.healthy && (pick -= replica.weight) < 0) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    @Scheduled(fixedDelayString = "${todo.datasource.routing.health-check-interval:5s}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                replica.markHealthy(connection.isValid(2), null);
+            } catch (SQLException e) {
+                replica.markHealthy(false, e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
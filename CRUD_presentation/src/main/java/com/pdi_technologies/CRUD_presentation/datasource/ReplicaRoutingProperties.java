@@ -0,0 +1,25 @@
+package com.pdi_technologies.CRUD_presentation.datasource;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+// todo.datasource.routing.*, a list of replicas doesn't fit @Value
+@ConfigurationProperties("todo.datasource.routing")
+public record ReplicaRoutingProperties(
+        boolean enabled,
+        @DefaultValue List<Replica> replicas,
+        @DefaultValue("5s") Duration readYourWrites) {
+
+    // username and password default to spring.datasource's
+    public record Replica(
+            String url,
+            String username,
+            String password,
+            @DefaultValue("1") int weight,
+            @DefaultValue("10") int maximumPoolSize,
+            @DefaultValue("2s") Duration connectionTimeout) {
+    }
+}
@@ -0,0 +1,74 @@
+package com.pdi_technologies.CRUD_presentation.domain;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.TenantId;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// A completed todo moved out of the todo table by TodoArchiver. It keeps its id and is read-only
+// from then on; only reads that ask for history see it.
+@Entity
+@Table(indexes = {
+    @Index(name = "idx_archived_todo_tenant_completed_at", columnList = "tenant_id, completed_at")
+})
+@NoArgsConstructor
+@Getter
+public class ArchivedTodo {
+
+    @Id
+    private Long id;
+
+    @TenantId
+    @Column(nullable = false, updatable = false, length = 64)
+    private String tenantId;
+
+    @Column(nullable = false)
+    private String title;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Todo.Priority priority;
+
+    private LocalDate dueDate;
+    private LocalDateTime archivedAt;
+
+    public static ArchivedTodo of(Todo todo, LocalDateTime archivedAt) {
+        ArchivedTodo archived = new ArchivedTodo();
+        archived.id = todo.getId();
+        archived.tenantId = todo.getTenantId();
+        archived.title = todo.getTitle();
+        archived.createdAt = todo.getCreatedAt();
+        // todos completed before completedAt existed count as completed when they were created
+        archived.completedAt = todo.getCompletedAt() != null ? todo.getCompletedAt() : todo.getCreatedAt();
+        archived.priority = todo.getPriority();
+        archived.dueDate = todo.getDueDate();
+        archived.archivedAt = archivedAt;
+        return archived;
+    }
+
+    // as the todo it was, detached
+    public Todo toTodo() {
+        Todo todo = new Todo();
+        todo.setId(id);
+        todo.setTenantId(tenantId);
+        todo.setTitle(title);
+        todo.setCreatedAt(createdAt);
+        todo.setCompleted(true);
+        todo.setCompletedAt(completedAt);
+        todo.setPriority(priority);
+        todo.setDueDate(dueDate);
+        return todo;
+    }
+}
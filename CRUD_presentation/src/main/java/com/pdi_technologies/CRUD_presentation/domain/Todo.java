@@ -3,38 +3,104 @@ package com.pdi_technologies.CRUD_presentation.domain;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.TenantId;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.pdi_technologies.CRUD_presentation.tenant.TenantContext;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@Table(indexes = {
+    // every query is restricted to one tenant, so the tenant leads each index and a lookup only
+    // ranges over that tenant's entries; then equality columns first so any combination of
+    // filters is a range scan
+    @Index(name = "idx_todo_tenant_id", columnList = "tenant_id, id"),
+    @Index(name = "idx_todo_tenant_completed_priority_due_date", columnList = "tenant_id, completed, priority, due_date"),
+    @Index(name = "idx_todo_tenant_priority_due_date", columnList = "tenant_id, priority, due_date"),
+    @Index(name = "idx_todo_tenant_due_date", columnList = "tenant_id, due_date"),
+    // the archival job's scan, across tenants
+    @Index(name = "idx_todo_completed_completed_at", columnList = "completed, completed_at")
+})
+@EntityListeners(TodoEntityListener.class)
+// UPDATEs only set the columns that changed, so a PATCH of one field writes one field
+@DynamicUpdate
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
 public class Todo {
+    // pooled sequence (a table on MySQL) so ids are known before the INSERT and
+    // Hibernate can batch inserts, which IDENTITY rules out
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todo_seq")
+    @SequenceGenerator(name = "todo_seq", sequenceName = "todo_seq", allocationSize = 50)
     private Long id;
+
+    // owner, stamped from TenantContext on insert; Hibernate adds it to every query. Rows from
+    // before tenants existed belong to the default tenant.
+    @TenantId
+    @Column(nullable = false, updatable = false, length = 64)
+    @ColumnDefault("'" + TenantContext.DEFAULT + "'")
+    @JsonIgnore
+    private String tenantId;
+
     @Column(nullable = false)
     private String title;
     private boolean completed = false;
     private LocalDateTime createdAt = LocalDateTime.now();
+
+    // when the todo was last completed, null while it is open; decides when it gets archived
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private LocalDateTime completedAt;
     
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private Priority priority = Priority.MEDIUM;
     
     private LocalDate dueDate;
+
+    // optimistic locking and the entity ETag; clients can read it but never set it
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long version;
+
+    // state as last loaded or written, maintained by TodoEntityListener
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    TodoSnapshot loadedState;
     
+    // completing stamps completedAt, reopening clears it
+    public void setCompleted(boolean completed) {
+        if (completed && !this.completed) {
+            completedAt = LocalDateTime.now();
+        } else if (!completed) {
+            completedAt = null;
+        }
+        this.completed = completed;
+    }
+
     public enum Priority {
         LOW, MEDIUM, HIGH, URGENT
     }
@@ -0,0 +1,43 @@
+package com.pdi_technologies.CRUD_presentation.domain;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.pdi_technologies.CRUD_presentation.event.TodoChangedEvent;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+// Turns every insert, update and delete of a Todo into a TodoChangedEvent, whichever code path
+// wrote it. The state seen at load time is kept on the entity so the event can carry both the
+// previous and the new values without another query.
+@Component
+public class TodoEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public TodoEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostLoad
+    void loaded(Todo todo) {
+        todo.loadedState = TodoSnapshot.of(todo);
+    }
+
+    @PostPersist
+    @PostUpdate
+    void saved(Todo todo) {
+        TodoSnapshot current = TodoSnapshot.of(todo);
+        eventPublisher.publishEvent(new TodoChangedEvent(todo.loadedState, current));
+        todo.loadedState = current;
+    }
+
+    @PostRemove
+    void removed(Todo todo) {
+        TodoSnapshot previous = todo.loadedState != null ? todo.loadedState : TodoSnapshot.of(todo);
+        eventPublisher.publishEvent(new TodoChangedEvent(previous, null));
+    }
+}
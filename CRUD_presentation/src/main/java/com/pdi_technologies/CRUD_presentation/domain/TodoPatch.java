@@ -0,0 +1,94 @@
+package com.pdi_technologies.CRUD_presentation.domain;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// A JSON Merge Patch (RFC 7396) of a todo's editable fields. Absent fields are left alone, a null
+// dueDate clears it; title, completed and priority can't be null. null here means "not patched".
+public record TodoPatch(String title, Boolean completed, Todo.Priority priority, LocalDate dueDate,
+        boolean clearDueDate) {
+
+    // throws IllegalArgumentException for anything that isn't a valid patch of a todo
+    public static TodoPatch parse(JsonNode patch, ObjectMapper objectMapper) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("A merge patch must be a JSON object");
+        }
+        String title = null;
+        Boolean completed = null;
+        Todo.Priority priority = null;
+        LocalDate dueDate = null;
+        boolean clearDueDate = false;
+        for (Map.Entry<String, JsonNode> field : patch.properties()) {
+            JsonNode value = field.getValue();
+            switch (field.getKey()) {
+                case "title" -> {
+                    title = convert(field.getKey(), value, String.class, objectMapper);
+                    if (title.isBlank()) {
+                        throw new IllegalArgumentException("title can't be blank");
+                    }
+                }
+                case "completed" -> completed = convert(field.getKey(), value, Boolean.class, objectMapper);
+                case "priority" -> priority = convert(field.getKey(), value, Todo.Priority.class, objectMapper);
+                case "dueDate" -> {
+                    if (value.isNull()) {
+                        clearDueDate = true;
+                    } else {
+                        dueDate = convert(field.getKey(), value, LocalDate.class, objectMapper);
+                    }
+                }
+                default -> throw new IllegalArgumentException(field.getKey() + " can't be patched");
+            }
+        }
+        return new TodoPatch(title, completed, priority, dueDate, clearDueDate);
+    }
+
+    public boolean isEmpty() {
+        return title == null && completed == null && priority == null && dueDate == null && !clearDueDate;
+    }
+
+    public void applyTo(Todo todo) {
+        if (title != null) {
+            todo.setTitle(title);
+        }
+        if (completed != null) {
+            todo.setCompleted(completed);
+        }
+        if (priority != null) {
+            todo.setPriority(priority);
+        }
+        if (dueDate != null || clearDueDate) {
+            todo.setDueDate(dueDate);
+        }
+    }
+
+    // the state after a bulk UPDATE that changed this todo, which also bumped its version; now is
+    // the completedAt the UPDATE set
+    public TodoSnapshot applyTo(TodoSnapshot todo, LocalDateTime now) {
+        boolean nowCompleted = Objects.requireNonNullElse(completed, todo.completed());
+        return new TodoSnapshot(todo.id(), todo.tenantId(),
+                Objects.requireNonNullElse(title, todo.title()),
+                nowCompleted,
+                todo.createdAt(),
+                Objects.requireNonNullElse(priority, todo.priority()),
+                dueDate != null || clearDueDate ? dueDate : todo.dueDate(),
+                !nowCompleted ? null : todo.completed() ? todo.completedAt() : now,
+                todo.version() + 1);
+    }
+
+    private static <T> T convert(String field, JsonNode value, Class<T> type, ObjectMapper objectMapper) {
+        if (value.isNull()) {
+            throw new IllegalArgumentException(field + " can't be null");
+        }
+        try {
+            return objectMapper.treeToValue(value, type);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.pdi_technologies.CRUD_presentation.domain;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+// Immutable copy of a todo's persistent state, safe to hand to other threads after commit
+public record TodoSnapshot(
+        Long id,
+        @JsonIgnore String tenantId,
+        String title,
+        boolean completed,
+        LocalDateTime createdAt,
+        Todo.Priority priority,
+        LocalDate dueDate,
+        LocalDateTime completedAt,
+        long version) {
+
+    public static TodoSnapshot of(Todo todo) {
+        return new TodoSnapshot(todo.getId(), todo.getTenantId(), todo.getTitle(), todo.isCompleted(), todo.getCreatedAt(),
+                todo.getPriority(), todo.getDueDate(), todo.getCompletedAt(), todo.getVersion());
+    }
+}
@@ -0,0 +1,17 @@
+package com.pdi_technologies.CRUD_presentation.dto;
+
+// Outcome of one element of a batch request, index is its position in the request body
+public record BatchItemResult(int index, Long id, Status status, String error) {
+
+    public enum Status {
+        CREATED, UPDATED, DELETED, NOT_FOUND, INVALID
+    }
+
+    public static BatchItemResult of(int index, Long id, Status status) {
+        return new BatchItemResult(index, id, status, null);
+    }
+
+    public static BatchItemResult invalid(int index, Long id, String error) {
+        return new BatchItemResult(index, id, Status.INVALID, error);
+    }
+}
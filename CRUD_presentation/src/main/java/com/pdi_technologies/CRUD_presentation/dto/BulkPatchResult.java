@@ -0,0 +1,5 @@
+package com.pdi_technologies.CRUD_presentation.dto;
+
+// Response of a bulk PATCH: how many todos were changed
+public record BulkPatchResult(int updated) {
+}
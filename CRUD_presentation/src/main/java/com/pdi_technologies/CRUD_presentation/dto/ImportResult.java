@@ -0,0 +1,7 @@
+package com.pdi_technologies.CRUD_presentation.dto;
+
+import java.util.List;
+
+// Outcome of POST /api/todos/import. errors lists the first rejected rows by line number.
+public record ImportResult(long imported, long rejected, List<String> errors, long elapsedMillis, long todosPerSecond) {
+}
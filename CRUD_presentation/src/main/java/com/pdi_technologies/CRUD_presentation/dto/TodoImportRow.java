@@ -0,0 +1,37 @@
+package com.pdi_technologies.CRUD_presentation.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+
+// One todo as read by POST /api/todos/import. Unlike a POSTed todo it keeps completedAt, so
+// moving todos between environments doesn't restart their archival clock. Ids are not kept,
+// imported todos are always new.
+public record TodoImportRow(
+        String title,
+        Boolean completed,
+        Todo.Priority priority,
+        LocalDate dueDate,
+        LocalDateTime createdAt,
+        LocalDateTime completedAt) {
+
+    public Todo toTodo() {
+        Todo todo = new Todo();
+        todo.setTitle(title);
+        if (priority != null) {
+            todo.setPriority(priority);
+        }
+        todo.setDueDate(dueDate);
+        if (createdAt != null) {
+            todo.setCreatedAt(createdAt);
+        }
+        if (Boolean.TRUE.equals(completed)) {
+            todo.setCompleted(true);
+            if (completedAt != null) {
+                todo.setCompletedAt(completedAt);
+            }
+        }
+        return todo;
+    }
+}
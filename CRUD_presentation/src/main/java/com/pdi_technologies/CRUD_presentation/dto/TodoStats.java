@@ -0,0 +1,20 @@
+package com.pdi_technologies.CRUD_presentation.dto;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+
+// Dashboard counts. overdue follows /overdue: open todos due today or earlier.
+public record TodoStats(
+        long total,
+        long completed,
+        long open,
+        long overdue,
+        long dueToday,
+        Map<Todo.Priority, Counts> byPriority,
+        LocalDate asOf) {
+
+    public record Counts(long total, long completed, long open) {
+    }
+}
@@ -0,0 +1,228 @@
+package com.pdi_technologies.CRUD_presentation.duedate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.CRUD_presentation.domain.TodoSnapshot;
+import com.pdi_technologies.CRUD_presentation.event.RemovedTodos;
+import com.pdi_technologies.CRUD_presentation.event.TodoBecameOverdueEvent;
+import com.pdi_technologies.CRUD_presentation.event.TodoChangedEvent;
+import com.pdi_technologies.CRUD_presentation.event.TodoReadModel;
+
+// Ids of todos with a due date, per tenant, bucketed by day and kept apart for open and completed
+// todos, so overdue, due-before and due-range lookups are range views over the buckets instead of
+// queries.
+//
+// Buckets are keyed by date, so nothing has to move when the day changes, only the overdue
+// boundary does: the midnight job advances it and reports the open todos it passes over. The
+// boundary is kept in the file at watermark-path, so on startup the days passed while the
+// application was down are reported too; without a path it starts at today and those are not.
+@Component
+public class TodoDueDateIndex implements TodoReadModel {
+
+    private record Entry(String tenantId, LocalDate dueDate, boolean completed, Todo.Priority priority,
+            long version) {
+    }
+
+    private static class Buckets {
+
+        final NavigableMap<LocalDate, Set<Long>> open = new TreeMap<>();
+        final NavigableMap<LocalDate, Set<Long>> completed = new TreeMap<>();
+
+        NavigableMap<LocalDate, Set<Long>> of(Entry entry) {
+            return entry.completed() ? completed : open;
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(TodoDueDateIndex.class);
+    private static final Buckets EMPTY = new Buckets();
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final RemovedTodos removed = new RemovedTodos();
+    private final Map<String, Buckets> bucketsByTenant = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path watermark; // null when not persisted
+    private LocalDate overdueThrough; // open todos due up to here are already overdue
+
+    public TodoDueDateIndex(ApplicationEventPublisher eventPublisher,
+            @Value("${todo.due-dates.watermark-path:}") String watermarkPath) {
+        this.eventPublisher = eventPublisher;
+        this.watermark = watermarkPath.isBlank() ? null : Path.of(watermarkPath);
+        this.overdueThrough = readWatermark();
+    }
+
+    @Override
+    public void apply(TodoChangedEvent event) {
+        TodoSnapshot current = event.current();
+        Entry entry = current != null && current.dueDate() != null
+                ? new Entry(current.tenantId(), current.dueDate(), current.completed(), current.priority(),
+                        current.version())
+                : null;
+        lock.writeLock().lock();
+        try {
+            // events of concurrent transactions can arrive out of commit order
+            Entry previous = entries.get(event.id());
+            if (current != null
+                    && (previous != null ? current.version() <= previous.version() : removed.isStale(current))) {
+                return;
+            }
+            if (entry != null) {
+                entries.put(event.id(), entry);
+                removed.forget(event.id());
+            } else {
+                entries.remove(event.id());
+                if (event.previous() != null) {
+                    removed.add(event.id(), current != null ? current.version() : event.previous().version());
+                }
+            }
+            if (previous != null) {
+                NavigableMap<LocalDate, Set<Long>> buckets = bucketsByTenant.get(previous.tenantId()).of(previous);
+                Set<Long> ids = buckets.get(previous.dueDate());
+                if (ids != null && ids.remove(event.id()) && ids.isEmpty()) {
+                    buckets.remove(previous.dueDate());
+                }
+            }
+            if (entry != null) {
+                bucketsByTenant.computeIfAbsent(entry.tenantId(), t -> new Buckets()).of(entry)
+                        .computeIfAbsent(entry.dueDate(), d -> new HashSet<>()).add(event.id());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // open todos due on or before today, as /overdue has always counted them
+    public List<Long> overdue(String tenantId, LocalDate today) {
+        lock.readLock().lock();
+        try {
+            return collect(buckets(tenantId).open.headMap(today, true), null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> dueBefore(String tenantId, LocalDate date) {
+        lock.readLock().lock();
+        try {
+            Buckets buckets = buckets(tenantId);
+            return collect(buckets.open.headMap(date, false), buckets.completed.headMap(date, false));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // both ends inclusive, like BETWEEN
+    public List<Long> dueBetween(String tenantId, LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Buckets buckets = buckets(tenantId);
+            return collect(buckets.open.subMap(startDate, true, endDate, true),
+                    buckets.completed.subMap(startDate, true, endDate, true));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // the read models are loaded by then, so the catch-up sees every todo
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${todo.due-dates.rollover-cron:0 0 0 * * *}")
+    public void rollover() {
+        advanceTo(LocalDate.now());
+    }
+
+    // reports every open todo that became overdue since the last call, and since the persisted
+    // watermark on the first call after a start
+    public void advanceTo(LocalDate today) {
+        List<TodoBecameOverdueEvent> events = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            if (!today.isAfter(overdueThrough)) {
+                return;
+            }
+            for (Buckets buckets : bucketsByTenant.values()) {
+                buckets.open.subMap(overdueThrough, false, today, true).values().forEach(ids -> ids.forEach(id -> {
+                    Entry entry = entries.get(id);
+                    events.add(new TodoBecameOverdueEvent(id, entry.tenantId(), entry.priority(), entry.dueDate()));
+                }));
+            }
+            overdueThrough = today;
+            writeWatermark(today);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        events.forEach(eventPublisher::publishEvent);
+    }
+
+    private LocalDate readWatermark() {
+        if (watermark == null) {
+            return LocalDate.now();
+        }
+        if (!Files.exists(watermark)) {
+            LocalDate today = LocalDate.now();
+            writeWatermark(today); // the first start, later ones catch up from here
+            return today;
+        }
+        try {
+            return LocalDate.parse(Files.readString(watermark).trim());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read the due date watermark " + watermark, e);
+        }
+    }
+
+    // written to a temporary file and moved over the old one, so a crash leaves one or the other
+    private void writeWatermark(LocalDate date) {
+        if (watermark == null) {
+            return;
+        }
+        try {
+            Path parent = watermark.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path written = Files.writeString(Files.createTempFile(parent, "due-dates", ".tmp"), date.toString());
+            Files.move(written, watermark, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // reported again after a restart, rather than not at all
+            log.warn("Can't persist the due date watermark {}: {}", watermark, e.getMessage());
+        }
+    }
+
+    private Buckets buckets(String tenantId) {
+        return bucketsByTenant.getOrDefault(tenantId, EMPTY);
+    }
+
+    private static List<Long> collect(Map<LocalDate, Set<Long>> first, Map<LocalDate, Set<Long>> second) {
+        List<Long> ids = new ArrayList<>();
+        first.values().forEach(ids::addAll);
+        if (second != null) {
+            second.values().forEach(ids::addAll);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,39 @@
+package com.pdi_technologies.CRUD_presentation.event;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.pdi_technologies.CRUD_presentation.domain.TodoSnapshot;
+
+// The versions a read model last saw of todos it no longer holds, deleted or changed so they
+// don't belong in it any more. After-commit events of concurrent transactions can arrive out of
+// commit order, and an older event for such a todo must not bring it back. Only the latest
+// CAPACITY removals are remembered: a reordered event arrives right behind the one it was
+// overtaken by, not thousands of removals later. Not thread-safe, used under the read model's
+// write lock.
+public class RemovedTodos {
+
+    private static final int CAPACITY = 4096;
+
+    private final Map<Long, Long> versions = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+    public void add(Long id, long version) {
+        versions.put(id, version);
+    }
+
+    // when a newer state of the todo is held again
+    public void forget(Long id) {
+        versions.remove(id);
+    }
+
+    // whether the state is no newer than the one the todo was removed at
+    public boolean isStale(TodoSnapshot todo) {
+        Long removedAt = versions.get(todo.id());
+        return removedAt != null && todo.version() <= removedAt;
+    }
+}
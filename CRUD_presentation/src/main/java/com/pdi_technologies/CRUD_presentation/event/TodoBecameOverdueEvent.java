@@ -0,0 +1,10 @@
+package com.pdi_technologies.CRUD_presentation.event;
+
+import java.time.LocalDate;
+
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+
+// Published at midnight for each open todo whose due date has just been reached. Todos that are
+// written when they are already overdue only show up as a TodoChangedEvent.
+public record TodoBecameOverdueEvent(Long id, String tenantId, Todo.Priority priority, LocalDate dueDate) {
+}
@@ -0,0 +1,62 @@
+package com.pdi_technologies.CRUD_presentation.event;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Change counter per tenant: bumped after every committed write to one of the tenant's todos.
+// Anything computed from the tenant's todos is unchanged for as long as its counter is, and a
+// busy tenant never invalidates what the others have cached.
+@Component
+public class TodoChangeTracker {
+
+    private static class Counter {
+
+        final AtomicLong version = new AtomicLong();
+        volatile Instant lastModified;
+
+        Counter(Instant lastModified) {
+            this.lastModified = lastModified;
+        }
+    }
+
+    // after the read models (see TodoReadModels.ORDER) and before the cache eviction, so a cache
+    // fill that raced with the write sees the new count by the time its entry is gone
+    public static final int ORDER = TodoReadModels.ORDER + 10;
+
+    // distinguishes counters of different application runs, both start at zero
+    private final long epoch = System.currentTimeMillis();
+    private final Instant started = Instant.ofEpochMilli(epoch).truncatedTo(ChronoUnit.SECONDS);
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(ORDER)
+    public void onTodoChanged(TodoChangedEvent event) {
+        Counter counter = counter(event.tenantId());
+        counter.version.incrementAndGet();
+        counter.lastModified = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    public long version(String tenantId) {
+        return counter(tenantId).version.get();
+    }
+
+    // names the tenant, so a tag from one tenant never validates another tenant's list
+    public String etag(String tenantId) {
+        return Long.toString(epoch, 36) + "-" + tenantId + "-" + version(tenantId);
+    }
+
+    public Instant lastModified(String tenantId) {
+        return counter(tenantId).lastModified;
+    }
+
+    private Counter counter(String tenantId) {
+        return counters.computeIfAbsent(tenantId, t -> new Counter(started));
+    }
+}
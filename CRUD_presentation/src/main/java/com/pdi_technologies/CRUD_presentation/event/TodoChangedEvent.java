@@ -0,0 +1,26 @@
+package com.pdi_technologies.CRUD_presentation.event;
+
+import com.pdi_technologies.CRUD_presentation.domain.TodoSnapshot;
+
+// previous is null for a newly created todo, current is null for a deleted one
+public record TodoChangedEvent(TodoSnapshot previous, TodoSnapshot current) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public Type type() {
+        if (previous == null) {
+            return Type.CREATED;
+        }
+        return current == null ? Type.DELETED : Type.UPDATED;
+    }
+
+    public Long id() {
+        return current != null ? current.id() : previous.id();
+    }
+
+    public String tenantId() {
+        return current != null ? current.tenantId() : previous.tenantId();
+    }
+}
@@ -0,0 +1,8 @@
+package com.pdi_technologies.CRUD_presentation.event;
+
+// An in-memory view derived from the todo table. It is filled once at startup with a CREATED
+// event per existing row and then kept current with every committed change.
+public interface TodoReadModel {
+
+    void apply(TodoChangedEvent event);
+}
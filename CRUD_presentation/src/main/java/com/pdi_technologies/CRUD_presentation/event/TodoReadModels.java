@@ -0,0 +1,58 @@
+package com.pdi_technologies.CRUD_presentation.event;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.pdi_technologies.CRUD_presentation.domain.TodoSnapshot;
+import com.pdi_technologies.CRUD_presentation.service.TodoService;
+import com.pdi_technologies.CRUD_presentation.tenant.TenantContext;
+
+// Loads every TodoReadModel with a single pass over the table, across all tenants, before the
+// web server starts taking requests, then forwards committed changes to them.
+@Component
+public class TodoReadModels implements SmartInitializingSingleton {
+
+    // first after a commit: the change counter only moves once the read models have the change,
+    // so a body computed from them is never older than the ETag and cache version it goes with
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE;
+
+    private static final Logger log = LoggerFactory.getLogger(TodoReadModels.class);
+
+    private final List<TodoReadModel> readModels;
+    private final TodoService todoService;
+
+    public TodoReadModels(List<TodoReadModel> readModels, TodoService todoService) {
+        this.readModels = readModels;
+        this.todoService = todoService;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (readModels.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        long[] rows = {0};
+        TenantContext.runAs(TenantContext.ROOT, () -> todoService.forEachTodo(todo -> {
+            TodoChangedEvent event = new TodoChangedEvent(null, TodoSnapshot.of(todo));
+            readModels.forEach(readModel -> readModel.apply(event));
+            rows[0]++;
+        }));
+        log.info("Loaded {} todos into {} read models in {} ms", rows[0], readModels.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // after commit, so a rolled back write never reaches the read models
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(ORDER)
+    public void onTodoChanged(TodoChangedEvent event) {
+        readModels.forEach(readModel -> readModel.apply(event));
+    }
+}
@@ -0,0 +1,12 @@
+package com.pdi_technologies.CRUD_presentation.feed;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.pdi_technologies.CRUD_presentation.domain.TodoSnapshot;
+import com.pdi_technologies.CRUD_presentation.event.TodoChangedEvent;
+
+// One delta on the change feed. sequence is the SSE event id clients resume from, todo is the
+// new state (null for DELETED). Sequences are shared by all tenants, so a client sees gaps
+// where other tenants' changes were, and start over at a higher number after a restart.
+public record TodoChange(long sequence, @JsonIgnore String tenantId, TodoChangedEvent.Type type, Long todoId,
+        TodoSnapshot todo) {
+}
@@ -0,0 +1,198 @@
+package com.pdi_technologies.CRUD_presentation.feed;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.pdi_technologies.CRUD_presentation.event.TodoChangedEvent;
+import com.pdi_technologies.CRUD_presentation.tenant.TenantContext;
+
+import jakarta.annotation.PreDestroy;
+
+// Pushes committed todo changes to Server-Sent Events subscribers.
+//
+// The last history-size changes are kept in a ring so a reconnecting client (Last-Event-ID) only
+// receives what it missed. Every subscriber has its own bounded buffer, so a slow client never
+// blocks writers or holds more than subscriber-buffer-size changes: when its buffer overflows
+// the backlog is dropped and it gets a "reset" event telling it to reload the list, as it does
+// when it resumes from an id older than the history. Subscribers only receive changes of the
+// tenant they subscribed as.
+//
+// Neither the history nor the sequence survive a restart, so every run numbers its changes from
+// its start time in microseconds: an id handed out by an earlier run is below the first one of
+// this run, and a client resuming from it (or from an id this run never reached) gets a reset
+// instead of silently missing what changed in between.
+//
+// Buffers are drained by drain-threads threads of the feed's own. A send blocks while a client's
+// socket is full, on the shared task executor that would hold up streamed responses too.
+@Component
+@RegisterReflectionForBinding(TodoChange.class) // written to SseEmitter, a native image needs the hints
+public class TodoChangeFeed {
+
+    static final String RESET_EVENT = "reset";
+
+    private static final Logger log = LoggerFactory.getLogger(TodoChangeFeed.class);
+
+    private final ThreadPoolTaskExecutor drainExecutor;
+    private final int subscriberBufferSize;
+    private final Duration timeout;
+    private final TodoChange[] history;
+    private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+    // the sequence before this run's first change
+    private final long first = System.currentTimeMillis() * 1000;
+    private long sequence = first; // guarded by this
+
+    public TodoChangeFeed(
+            @Value("${todo.change-feed.history-size:1024}") int historySize,
+            @Value("${todo.change-feed.subscriber-buffer-size:256}") int subscriberBufferSize,
+            @Value("${todo.change-feed.timeout:30m}") Duration timeout,
+            @Value("${todo.change-feed.drain-threads:4}") int drainThreads) {
+        this.drainExecutor = new ThreadPoolTaskExecutor();
+        drainExecutor.setCorePoolSize(drainThreads);
+        drainExecutor.setMaxPoolSize(drainThreads);
+        drainExecutor.setThreadNamePrefix("change-feed-");
+        drainExecutor.initialize();
+        this.history = new TodoChange[historySize];
+        this.subscriberBufferSize = subscriberBufferSize;
+        this.timeout = timeout;
+    }
+
+    // numbered, recorded and offered under one lock, so every subscriber gets changes in sequence
+    // order and a subscriber registering meanwhile gets each change either from the history or
+    // from here, never both; offering only queues, the sends happen on the drain threads
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onTodoChanged(TodoChangedEvent event) {
+        TodoChange change = new TodoChange(++sequence, event.tenantId(), event.type(), event.id(), event.current());
+        history[(int) (change.sequence() % history.length)] = change;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.tenantId.equals(change.tenantId())) {
+                subscriber.offer(change);
+            }
+        }
+    }
+
+    // lastEventId: the last change the client saw, null to only receive new changes
+    public SseEmitter subscribe(Long lastEventId) {
+        Subscriber subscriber = new Subscriber(TenantContext.current(), new SseEmitter(timeout.toMillis()));
+        synchronized (this) {
+            if (lastEventId != null) {
+                long oldest = Math.max(first + 1, sequence - history.length + 1);
+                if (lastEventId > sequence || lastEventId + 1 < oldest) {
+                    subscriber.reset();
+                } else {
+                    for (long s = lastEventId + 1; s <= sequence; s++) {
+                        TodoChange change = history[(int) (s % history.length)];
+                        if (subscriber.tenantId.equals(change.tenantId())) {
+                            subscriber.offer(change);
+                        }
+                    }
+                }
+            }
+            // registered under the same lock as publishing, so nothing is missed or sent twice
+            subscribers.add(subscriber);
+        }
+        SseEmitter emitter = subscriber.emitter;
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    private synchronized long currentSequence() {
+        return sequence;
+    }
+
+    @PreDestroy
+    void close() {
+        drainExecutor.shutdown();
+    }
+
+    private class Subscriber {
+
+        private final String tenantId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<TodoChange> buffer = new ArrayDeque<>(); // guarded by itself
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private boolean resetPending; // guarded by buffer
+
+        Subscriber(String tenantId, SseEmitter emitter) {
+            this.tenantId = tenantId;
+            this.emitter = emitter;
+        }
+
+        void offer(TodoChange change) {
+            synchronized (buffer) {
+                if (buffer.size() >= subscriberBufferSize) {
+                    buffer.clear();
+                    resetPending = true;
+                } else if (!resetPending) {
+                    buffer.add(change);
+                }
+            }
+            scheduleDrain();
+        }
+
+        void reset() {
+            synchronized (buffer) {
+                buffer.clear();
+                resetPending = true;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                drainExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    TodoChange change;
+                    boolean reset;
+                    synchronized (buffer) {
+                        reset = resetPending;
+                        resetPending = false;
+                        change = reset ? null : buffer.poll();
+                        if (!reset && change == null) {
+                            // cleared under the buffer lock, so a concurrent offer schedules a new drain
+                            draining.set(false);
+                            return;
+                        }
+                    }
+                    if (reset) {
+                        // resuming from this id picks up everything after the reset
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(currentSequence()))
+                                .name(RESET_EVENT)
+                                .data(Map.of("reason", "missed changes, reload the list")));
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(change.sequence()))
+                                .name(change.type().name())
+                                .data(change));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // client went away; draining stays set so nothing is scheduled for it again
+                log.debug("Dropping change feed subscriber: {}", e.getMessage());
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
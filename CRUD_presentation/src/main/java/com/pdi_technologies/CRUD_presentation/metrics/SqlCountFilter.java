@@ -0,0 +1,120 @@
+package com.pdi_technologies.CRUD_presentation.metrics;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+// Records how many SQL statements each API request ran (todo.sql.statements, tagged by method
+// and route) and warns when a request looks like an N+1. With todo.sql.count-header=true, as in
+// the dev profile, the count is also returned in an X-SQL-Count response header.
+//
+// Only statements on the request thread are counted. Responses written asynchronously (/stream
+// and /export stream their body from the task executor) run their queries on another thread, so
+// their count would only cover the part before the handler returned; those requests are not
+// recorded at all rather than recorded low.
+@Component
+public class SqlCountFilter extends OncePerRequestFilter {
+
+    static final String SQL_COUNT_HEADER = "X-SQL-Count";
+
+    private static final Logger log = LoggerFactory.getLogger(SqlCountFilter.class);
+
+    private final SqlStatementCounter counter;
+    private final MeterRegistry meterRegistry;
+    private final boolean countHeader;
+    private final int warnThreshold;
+
+    public SqlCountFilter(SqlStatementCounter counter, MeterRegistry meterRegistry,
+            @Value("${todo.sql.count-header:false}") boolean countHeader,
+            @Value("${todo.sql.warn-threshold:20}") int warnThreshold) {
+        this.counter = counter;
+        this.meterRegistry = meterRegistry;
+        this.countHeader = countHeader;
+        this.warnThreshold = warnThreshold;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        counter.reset();
+        HttpServletResponse target = countHeader ? new CountHeaderResponse(response) : response;
+        try {
+            chain.doFilter(request, target);
+        } finally {
+            recordUnlessAsync(request, response);
+        }
+    }
+
+    private void recordUnlessAsync(HttpServletRequest request, HttpServletResponse response) {
+        if (request.isAsyncStarted()) {
+            return;
+        }
+        int statements = counter.count();
+        if (countHeader && !response.isCommitted()) {
+            response.setIntHeader(SQL_COUNT_HEADER, statements);
+        }
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = route != null ? route.toString() : "UNKNOWN";
+        DistributionSummary.builder("todo.sql.statements")
+                .description("SQL statements executed per request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statements);
+        if (statements > warnThreshold) {
+            log.warn("{} {} ran {} SQL statements, possible N+1", request.getMethod(), uri, statements);
+        }
+    }
+
+    // the header has to be in place before the first byte of the body goes out
+    private class CountHeaderResponse extends HttpServletResponseWrapper {
+
+        CountHeaderResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addCountHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addCountHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addCountHeader();
+            super.flushBuffer();
+        }
+
+        private void addCountHeader() {
+            if (!isCommitted()) {
+                setIntHeader(SQL_COUNT_HEADER, counter.count());
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.pdi_technologies.CRUD_presentation.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.pdi_technologies.CRUD_presentation.domain.ArchivedTodo;
+
+@Repository
+public interface ArchivedTodoRepository extends JpaRepository<ArchivedTodo, Long> {
+
+    // latest completion first, served by the (tenant_id, completed_at) index read backwards
+    List<ArchivedTodo> findByOrderByCompletedAtDescIdDesc(Limit limit);
+}
@@ -0,0 +1,18 @@
+package com.pdi_technologies.CRUD_presentation.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.pdi_technologies.CRUD_presentation.domain.TodoPatch;
+import com.pdi_technologies.CRUD_presentation.domain.TodoSnapshot;
+
+// Set-based writes that don't go through entity state, mixed into TodoRepository
+public interface TodoBulkUpdates {
+
+    // applies the patch to every todo matching the query and returns how many changed. The state
+    // of the changed todos before the update is handed to updated a chunk at a time, as each
+    // chunk is updated. Todos the patch wouldn't change are skipped; now is the completedAt of
+    // todos the patch completes.
+    int updateMatching(TodoQuery query, TodoPatch patch, LocalDateTime now, Consumer<List<TodoSnapshot>> updated);
+}
@@ -0,0 +1,137 @@
+package com.pdi_technologies.CRUD_presentation.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.CRUD_presentation.domain.TodoPatch;
+import com.pdi_technologies.CRUD_presentation.domain.TodoSnapshot;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+// Not the single UPDATE ... WHERE <filter> it could be: that UPDATE bypasses the entity
+// listeners, and MySQL can't return the rows it changed, yet the caches, read models and change
+// feed need the previous state of each of them. So the matching rows are read and locked first,
+// the lock keeping them from changing between that read and the UPDATE. The read selects only
+// the snapshot columns, no entities, and goes in chunks of CHUNK rows by id, each chunk updated
+// by id and handed to the caller before the next is read, so only one chunk is held here.
+//
+// Every matched row stays locked until the transaction commits, as it would under the single
+// UPDATE; a patch over a huge filter holds that many locks (and the caller one event per row
+// until the commit publishes them), so bulk patches are meant for filters of bounded size.
+class TodoBulkUpdatesImpl implements TodoBulkUpdates {
+
+    private static final int CHUNK = 1000;
+
+    private final EntityManager entityManager;
+
+    TodoBulkUpdatesImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public int updateMatching(TodoQuery query, TodoPatch patch, LocalDateTime now,
+            Consumer<List<TodoSnapshot>> updated) {
+        if (patch.isEmpty()) {
+            return 0;
+        }
+        int total = 0;
+        long afterId = 0;
+        List<TodoSnapshot> chunk;
+        do {
+            chunk = lockChunk(query, patch, afterId);
+            if (!chunk.isEmpty()) {
+                List<Long> ids = chunk.stream().map(TodoSnapshot::id).toList();
+                int count = update(patch, ids, now);
+                if (count != ids.size()) {
+                    throw new OptimisticLockingFailureException(
+                            "Todos matching the filter changed during the update, " + count + " updated but "
+                                    + ids.size() + " read");
+                }
+                updated.accept(chunk);
+                total += count;
+                afterId = ids.get(ids.size() - 1);
+            }
+        } while (chunk.size() == CHUNK);
+        return total;
+    }
+
+    // the next matching todos after the given id, in id order, locked until the transaction ends
+    private List<TodoSnapshot> lockChunk(TodoQuery query, TodoPatch patch, long afterId) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TodoSnapshot> select = cb.createQuery(TodoSnapshot.class);
+        Root<Todo> todo = select.from(Todo.class);
+        select.select(cb.construct(TodoSnapshot.class, todo.get("id"), todo.get("tenantId"), todo.get("title"),
+                todo.get("completed"), todo.get("createdAt"), todo.get("priority"), todo.get("dueDate"),
+                todo.get("completedAt"), todo.get("version")));
+        select.where(cb.and(where(query, patch, todo, cb), cb.greaterThan(todo.<Long>get("id"), afterId)));
+        select.orderBy(cb.asc(todo.get("id")));
+        return entityManager.createQuery(select)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(CHUNK)
+                .getResultList();
+    }
+
+    // the rows are locked as read, so the ids are all the filter the UPDATE needs
+    private int update(TodoPatch patch, List<Long> ids, LocalDateTime now) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Todo> update = cb.createCriteriaUpdate(Todo.class);
+        Root<Todo> target = update.from(Todo.class);
+        if (patch.title() != null) {
+            update.set(target.<String>get("title"), patch.title());
+        }
+        if (patch.completed() != null) {
+            update.set(target.<Boolean>get("completed"), patch.completed());
+            // as Todo.setCompleted: stamped when a todo gets completed, cleared when it is reopened
+            Path<LocalDateTime> completedAt = target.get("completedAt");
+            update.set(completedAt, patch.completed()
+                    ? cb.<LocalDateTime>selectCase()
+                            .when(cb.isTrue(target.get("completed")), completedAt)
+                            .otherwise(now)
+                    : cb.nullLiteral(LocalDateTime.class));
+        }
+        if (patch.priority() != null) {
+            update.set(target.<Todo.Priority>get("priority"), patch.priority());
+        }
+        if (patch.dueDate() != null || patch.clearDueDate()) {
+            update.set(target.get("dueDate"), patch.dueDate());
+        }
+        Path<Long> version = target.get("version");
+        update.set(version, cb.sum(version, 1L));
+        update.where(target.get("id").in(ids));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    // the query's filters, and at least one patched field that actually differs
+    private static Predicate where(TodoQuery query, TodoPatch patch, Root<Todo> root, CriteriaBuilder cb) {
+        List<Predicate> changes = new ArrayList<>();
+        if (patch.title() != null) {
+            changes.add(cb.notEqual(root.get("title"), patch.title()));
+        }
+        if (patch.completed() != null) {
+            changes.add(cb.notEqual(root.get("completed"), patch.completed()));
+        }
+        if (patch.priority() != null) {
+            changes.add(cb.notEqual(root.get("priority"), patch.priority()));
+        }
+        if (patch.clearDueDate()) {
+            changes.add(cb.isNotNull(root.get("dueDate")));
+        } else if (patch.dueDate() != null) {
+            changes.add(cb.or(cb.isNull(root.get("dueDate")), cb.notEqual(root.get("dueDate"), patch.dueDate())));
+        }
+        List<Predicate> predicates = TodoSpecifications.predicates(query, root, cb);
+        predicates.add(cb.or(changes.toArray(Predicate[]::new)));
+        return cb.and(predicates.toArray(Predicate[]::new));
+    }
+}
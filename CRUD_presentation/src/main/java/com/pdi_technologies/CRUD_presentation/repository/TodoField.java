@@ -0,0 +1,71 @@
+package com.pdi_technologies.CRUD_presentation.repository;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+
+// The todo fields a client can pick with ?fields=, named as in the JSON of a Todo, which is also
+// the entity attribute name. id is always part of a selection, it identifies the todo and
+// carries the paging cursor.
+public enum TodoField {
+    ID("id", Todo::getId),
+    TITLE("title", Todo::getTitle),
+    COMPLETED("completed", Todo::isCompleted),
+    CREATED_AT("createdAt", Todo::getCreatedAt),
+    COMPLETED_AT("completedAt", Todo::getCompletedAt),
+    PRIORITY("priority", Todo::getPriority),
+    DUE_DATE("dueDate", Todo::getDueDate),
+    VERSION("version", Todo::getVersion);
+
+    private final String attribute;
+    private final Function<Todo, Object> getter;
+
+    TodoField(String attribute, Function<Todo, Object> getter) {
+        this.attribute = attribute;
+        this.getter = getter;
+    }
+
+    public String attribute() {
+        return attribute;
+    }
+
+    // a comma separated list such as "title,completed"; throws IllegalArgumentException for a
+    // name that isn't a field
+    public static Set<TodoField> parse(String fields) {
+        Set<TodoField> selected = EnumSet.of(ID);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            selected.add(byAttribute(trimmed));
+        }
+        return selected;
+    }
+
+    // the selected fields of todos that are already loaded, in the same shape as a projection query
+    public static List<Map<String, Object>> project(List<Todo> todos, Set<TodoField> fields) {
+        return todos.stream().map(todo -> {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (TodoField field : fields) {
+                values.put(field.attribute, field.getter.apply(todo));
+            }
+            return values;
+        }).toList();
+    }
+
+    private static TodoField byAttribute(String attribute) {
+        for (TodoField field : values()) {
+            if (field.attribute.equals(attribute)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field '" + attribute + "', fields are id, title, completed, "
+                + "createdAt, completedAt, priority, dueDate and version");
+    }
+}
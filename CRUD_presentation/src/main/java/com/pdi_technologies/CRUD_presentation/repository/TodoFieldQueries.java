@@ -0,0 +1,19 @@
+package com.pdi_technologies.CRUD_presentation.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+
+// Projections onto a subset of the todo columns, mixed into TodoRepository. No entity is
+// created, so nothing is put in the persistence context or snapshotted for dirty checking.
+public interface TodoFieldQueries {
+
+    // the given fields of the todos matching the specification, as field name to value in
+    // field order. Ordered by id unless the specification orders the query itself.
+    List<Map<String, Object>> findFields(Specification<Todo> specification, Set<TodoField> fields, Limit limit);
+}
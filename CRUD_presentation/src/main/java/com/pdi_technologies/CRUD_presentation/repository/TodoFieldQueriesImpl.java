@@ -0,0 +1,60 @@
+package com.pdi_technologies.CRUD_presentation.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+// SELECTs only the requested columns as a tuple query
+class TodoFieldQueriesImpl implements TodoFieldQueries {
+
+    private final EntityManager entityManager;
+
+    TodoFieldQueriesImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Map<String, Object>> findFields(Specification<Todo> specification, Set<TodoField> fields,
+            Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> select = cb.createTupleQuery();
+        Root<Todo> root = select.from(Todo.class);
+        List<Selection<?>> columns = new ArrayList<>(fields.size());
+        for (TodoField field : fields) {
+            columns.add(root.get(field.attribute()).alias(field.attribute()));
+        }
+        select.multiselect(columns);
+        select.orderBy(cb.asc(root.get("id"))); // replaced by an ordering specification
+        select.where(specification.toPredicate(root, select, cb));
+
+        TypedQuery<Tuple> query = entityManager.createQuery(select);
+        if (limit.isLimited()) {
+            query.setMaxResults(limit.max());
+        }
+        List<Tuple> rows = query.getResultList();
+        List<Map<String, Object>> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (TodoField field : fields) {
+                values.put(field.attribute(), row.get(field.attribute()));
+            }
+            result.add(values);
+        }
+        return result;
+    }
+}
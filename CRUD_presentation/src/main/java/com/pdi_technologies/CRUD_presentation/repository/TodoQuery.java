@@ -0,0 +1,25 @@
+package com.pdi_technologies.CRUD_presentation.repository;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+
+// Any combination of filters for /api/todos/query, null (or empty) means "don't filter on this"
+public record TodoQuery(
+        Boolean completed,
+        Set<Todo.Priority> priority,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo,
+        String title) {
+
+    public static final TodoQuery ALL = new TodoQuery(null, null, null, null, null);
+
+    // true when no filter is set, so the query matches every todo
+    public boolean matchesAll() {
+        return completed == null && (priority == null || priority.isEmpty()) && dueFrom == null && dueTo == null
+                && (title == null || title.isBlank());
+    }
+}
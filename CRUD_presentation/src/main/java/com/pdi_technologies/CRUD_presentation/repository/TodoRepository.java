@@ -1,27 +1,56 @@
 package com.pdi_technologies.CRUD_presentation.repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.pdi_technologies.CRUD_presentation.domain.Todo;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
-public interface TodoRepository extends JpaRepository<Todo, Long> {
+public interface TodoRepository extends JpaRepository<Todo, Long>, JpaSpecificationExecutor<Todo>, TodoBulkUpdates,
+        TodoFieldQueries {
     
+    // keyset pagination: seek past the last id of the previous page instead of OFFSET
+    List<Todo> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // cursor-backed scan of the whole table, rows are fetched in chunks rather than all at once
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Todo t ORDER BY t.id ASC")
+    Stream<Todo> streamAllBy();
+
     List<Todo> findByCompleted(boolean completed);
-    
-    List<Todo> findByTitleContaining(String title);
+
+    // completed todos, latest completion first (those without completedAt after the rest)
+    List<Todo> findByCompletedTrueOrderByCompletedAtDescIdDesc(Limit limit);
+
+    // the next chunk for TodoArchiver, locked until it has been moved; todos completed before
+    // completedAt existed count as completed when they were created
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Todo t WHERE t.completed = true AND COALESCE(t.completedAt, t.createdAt) < :cutoff ORDER BY t.id")
+    List<Todo> findCompletedBefore(@Param("cutoff") LocalDateTime cutoff, Limit limit);
     
     List<Todo> findByPriority(Todo.Priority priority);
     
     List<Todo> findByDueDate(LocalDate dueDate);
-    
-    List<Todo> findByDueDateBefore(LocalDate date);
+
+    List<Todo> findByPriorityAndDueDate(Todo.Priority priority, LocalDate dueDate);
     
     List<Todo> findByDueDateAfter(LocalDate date);
     
@@ -29,10 +58,4 @@ public interface TodoRepository extends JpaRepository<Todo, Long> {
     
     @Query("SELECT t FROM Todo t WHERE t.priority = :priority AND t.completed = :completed")
     List<Todo> findByPriorityAndCompleted(@Param("priority") Todo.Priority priority, @Param("completed") boolean completed);
-    
-    @Query("SELECT t FROM Todo t WHERE t.dueDate <= :date AND t.completed = false ORDER BY t.priority DESC, t.dueDate ASC")
-    List<Todo> findOverdueTodos(@Param("date") LocalDate date);
-    
-    @Query("SELECT t FROM Todo t WHERE t.dueDate BETWEEN :startDate AND :endDate ORDER BY t.priority DESC, t.dueDate ASC")
-    List<Todo> findTodosByDateRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 }
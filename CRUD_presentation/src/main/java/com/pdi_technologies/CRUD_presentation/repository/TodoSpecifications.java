@@ -0,0 +1,75 @@
+package com.pdi_technologies.CRUD_presentation.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+// Compiles a TodoQuery into a single WHERE clause. Equality predicates come first so the
+// (completed, priority, due_date) index can be used for the leading columns and the
+// due date range, the title match is applied to the rows that survive.
+public final class TodoSpecifications {
+
+    private TodoSpecifications() {
+    }
+
+    public static Specification<Todo> matching(TodoQuery query) {
+        return (root, criteriaQuery, cb) -> cb.and(predicates(query, root, cb).toArray(Predicate[]::new));
+    }
+
+    public static Specification<Todo> idGreaterThan(long id) {
+        return (root, criteriaQuery, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    // most urgent first, then earliest due date; id keeps the order stable between calls. Entity
+    // and projection queries are ordered, count queries aren't.
+    public static Specification<Todo> orderedByUrgency(Specification<Todo> specification) {
+        return (root, criteriaQuery, cb) -> {
+            if (criteriaQuery != null && !Long.class.equals(criteriaQuery.getResultType())) {
+                criteriaQuery.orderBy(
+                        cb.desc(urgency(root, cb)),
+                        cb.asc(root.get("dueDate")),
+                        cb.asc(root.get("id")));
+            }
+            return specification.toPredicate(root, criteriaQuery, cb);
+        };
+    }
+
+    static List<Predicate> predicates(TodoQuery query, Root<Todo> root, CriteriaBuilder cb) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (query.completed() != null) {
+            predicates.add(cb.equal(root.get("completed"), query.completed()));
+        }
+        if (query.priority() != null && !query.priority().isEmpty()) {
+            predicates.add(query.priority().size() == 1
+                    ? cb.equal(root.get("priority"), query.priority().iterator().next())
+                    : root.get("priority").in(query.priority()));
+        }
+        if (query.dueFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("dueDate"), query.dueFrom()));
+        }
+        if (query.dueTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(root.get("dueDate"), query.dueTo()));
+        }
+        if (query.title() != null && !query.title().isBlank()) {
+            predicates.add(cb.like(root.get("title"), "%" + query.title() + "%"));
+        }
+        return predicates;
+    }
+
+    // priority is stored by name, so sorting the column directly would be alphabetical
+    static Expression<Integer> urgency(Root<Todo> root, CriteriaBuilder cb) {
+        CriteriaBuilder.SimpleCase<Todo.Priority, Integer> urgency = cb.selectCase(root.get("priority"));
+        for (Todo.Priority priority : Todo.Priority.values()) {
+            urgency.when(priority, priority.ordinal());
+        }
+        return urgency.otherwise(-1);
+    }
+}
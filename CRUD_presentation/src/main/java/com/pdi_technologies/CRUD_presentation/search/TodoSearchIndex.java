@@ -0,0 +1,174 @@
+package com.pdi_technologies.CRUD_presentation.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.pdi_technologies.CRUD_presentation.domain.TodoSnapshot;
+import com.pdi_technologies.CRUD_presentation.event.RemovedTodos;
+import com.pdi_technologies.CRUD_presentation.event.TodoChangedEvent;
+import com.pdi_technologies.CRUD_presentation.event.TodoReadModel;
+
+// In-process inverted index over todo titles. Titles are split into lower-cased word tokens;
+// each token maps to the ids containing it, and each id remembers its tokens so an update or
+// delete only touches the postings it actually changes. Tokens are keyed by tenant first, so a
+// search only ever walks the postings of its own tenant. Each id also remembers the version it
+// was indexed at, so an event overtaken by a newer one is ignored when it arrives.
+//
+// A query term matches a token exactly or as a prefix ("mil" matches "milk"). Exact matches
+// score higher than prefix matches, and todos matching more terms rank higher, ties go to the
+// newest todo.
+@Component
+public class TodoSearchIndex implements TodoReadModel {
+
+    private record Indexed(String[] keys, long version) {
+    }
+
+    private static final double EXACT_MATCH_SCORE = 2.0;
+    private static final double PREFIX_MATCH_SCORE = 1.0;
+    private static final char TENANT_SEPARATOR = '\u0000'; // never part of a token
+
+    private final NavigableMap<String, Set<Long>> postings = new TreeMap<>(); // tenant + separator + token
+    private final Map<Long, Indexed> indexed = new HashMap<>();
+    private final RemovedTodos removed = new RemovedTodos();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int maxPrefixExpansions;
+
+    public TodoSearchIndex(@Value("${todo.search.max-prefix-expansions:64}") int maxPrefixExpansions) {
+        this.maxPrefixExpansions = maxPrefixExpansions;
+    }
+
+    @Override
+    public void apply(TodoChangedEvent event) {
+        TodoSnapshot current = event.current();
+        String[] keys = current != null
+                ? Arrays.stream(tokenize(current.title()))
+                        .map(token -> key(current.tenantId(), token))
+                        .toArray(String[]::new)
+                : new String[0];
+        lock.writeLock().lock();
+        try {
+            Indexed held = indexed.get(event.id());
+            if (current != null && (held != null ? current.version() <= held.version() : removed.isStale(current))) {
+                return;
+            }
+            if (keys.length > 0) {
+                indexed.put(event.id(), new Indexed(keys, current.version()));
+                removed.forget(event.id());
+            } else {
+                indexed.remove(event.id());
+                if (event.previous() != null) {
+                    removed.add(event.id(), current != null ? current.version() : event.previous().version());
+                }
+            }
+            if (held != null) {
+                for (String key : held.keys()) {
+                    Set<Long> ids = postings.get(key);
+                    if (ids != null && ids.remove(event.id()) && ids.isEmpty()) {
+                        postings.remove(key);
+                    }
+                }
+            }
+            for (String key : keys) {
+                postings.computeIfAbsent(key, k -> new HashSet<>()).add(event.id());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ids of the tenant's best matching todos, best first. With requireAll only todos matching
+    // every term are returned.
+    public List<Long> search(String tenantId, String query, int limit, boolean requireAll) {
+        String[] terms = tokenize(query);
+        if (terms.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        Map<Long, double[]> scores = new HashMap<>(); // [score, matched terms]
+        lock.readLock().lock();
+        try {
+            for (String term : terms) {
+                Map<Long, Double> termScores = matchTerm(tenantId, term);
+                termScores.forEach((id, score) -> {
+                    double[] total = scores.computeIfAbsent(id, k -> new double[2]);
+                    total[0] += score;
+                    total[1]++;
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Comparator<Map.Entry<Long, double[]>> rank = Comparator
+                .<Map.Entry<Long, double[]>>comparingDouble(e -> e.getValue()[0])
+                .thenComparing(Map.Entry::getKey);
+        PriorityQueue<Map.Entry<Long, double[]>> top = new PriorityQueue<>(rank);
+        for (Map.Entry<Long, double[]> entry : scores.entrySet()) {
+            if (requireAll && entry.getValue()[1] < terms.length) {
+                continue;
+            }
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Long> ids = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ids.add(top.poll().getKey());
+        }
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    // best score per id for one query term; a term never counts twice for the same todo
+    private Map<Long, Double> matchTerm(String tenantId, String term) {
+        Map<Long, Double> matches = new HashMap<>();
+        String prefix = key(tenantId, term);
+        int tenantLength = prefix.length() - term.length();
+        int expansions = 0;
+        for (Map.Entry<String, Set<Long>> posting : postings.tailMap(prefix, true).entrySet()) {
+            String key = posting.getKey();
+            if (!key.startsWith(prefix) || expansions++ >= maxPrefixExpansions) {
+                break;
+            }
+            // shorter completions are closer to what was typed
+            int tokenLength = key.length() - tenantLength;
+            double score = tokenLength == term.length()
+                    ? EXACT_MATCH_SCORE
+                    : PREFIX_MATCH_SCORE * term.length() / tokenLength;
+            for (Long id : posting.getValue()) {
+                matches.merge(id, score, Math::max);
+            }
+        }
+        return matches;
+    }
+
+    private static String key(String tenantId, String token) {
+        return tenantId + TENANT_SEPARATOR + token;
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return new String[0];
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+}
@@ -1,88 +1,461 @@
 package com.pdi_technologies.CRUD_presentation.service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.pdi_technologies.CRUD_presentation.cache.TodoCaches;
+import com.pdi_technologies.CRUD_presentation.coalescing.Coalesced;
+import com.pdi_technologies.CRUD_presentation.columnar.TodoColumnStore;
+import com.pdi_technologies.CRUD_presentation.datasource.ReadYourWrites;
 import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.CRUD_presentation.domain.TodoPatch;
+import com.pdi_technologies.CRUD_presentation.duedate.TodoDueDateIndex;
+import com.pdi_technologies.CRUD_presentation.dto.BatchItemResult;
+import com.pdi_technologies.CRUD_presentation.dto.TodoStats;
+import com.pdi_technologies.CRUD_presentation.event.TodoChangedEvent;
+import com.pdi_technologies.CRUD_presentation.repository.ArchivedTodoRepository;
+import com.pdi_technologies.CRUD_presentation.repository.TodoField;
+import com.pdi_technologies.CRUD_presentation.repository.TodoQuery;
 import com.pdi_technologies.CRUD_presentation.repository.TodoRepository;
+import com.pdi_technologies.CRUD_presentation.repository.TodoSpecifications;
+import com.pdi_technologies.CRUD_presentation.search.TodoSearchIndex;
+import com.pdi_technologies.CRUD_presentation.stats.TodoStatsCounters;
+import com.pdi_technologies.CRUD_presentation.tenant.TenantContext;
+import com.pdi_technologies.CRUD_presentation.writebehind.TodoWriteBehind;
 
+import jakarta.persistence.EntityManager;
+
+// Reads run in read-only transactions: Hibernate skips dirty checking for them, and with
+// todo.datasource.routing.enabled they are served by a replica, except for the cache-filling
+// ones, which read the primary. With todo.write-behind.enabled
+// single todo writes are acknowledged from the write-behind log and reach the database later.
+// With todo.columnar.enabled the filter methods are answered from the in-memory column store.
+// With todo.coalescing.enabled identical concurrent list reads share one execution.
 @Service
+@CacheConfig(keyGenerator = TodoCaches.TENANT_KEY_GENERATOR)
 public class TodoService {
+
+    // keeps IN lists well below the bind parameter limits of the database
+    private static final int ID_LOOKUP_CHUNK = 1000;
+    private static final Comparator<Todo> BY_URGENCY = Comparator
+            .comparing(Todo::getPriority, Comparator.reverseOrder())
+            .thenComparing(Todo::getDueDate, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Todo::getId);
+    // as ORDER BY completed_at DESC, id DESC, where NULL sorts last
+    private static final Comparator<Todo> LATEST_COMPLETION = Comparator
+            .comparing(Todo::getCompletedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Todo::getId, Comparator.reverseOrder());
     
     private final TodoRepository todoRepository;
+    private final ArchivedTodoRepository archivedTodoRepository;
+    private final EntityManager entityManager;
+    private final TodoSearchIndex searchIndex;
+    private final TodoStatsCounters statsCounters;
+    private final TodoDueDateIndex dueDateIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TodoWriteBehind writeBehind; // null unless enabled
+    private final TodoColumnStore columns; // null unless enabled
 
-    public TodoService(TodoRepository todoRepository) {
+    public TodoService(TodoRepository todoRepository, ArchivedTodoRepository archivedTodoRepository,
+            EntityManager entityManager, TodoSearchIndex searchIndex,
+            TodoStatsCounters statsCounters, TodoDueDateIndex dueDateIndex, ApplicationEventPublisher eventPublisher,
+            ObjectProvider<TodoWriteBehind> writeBehind, ObjectProvider<TodoColumnStore> columns) {
         this.todoRepository = todoRepository;
+        this.archivedTodoRepository = archivedTodoRepository;
+        this.entityManager = entityManager;
+        this.searchIndex = searchIndex;
+        this.statsCounters = statsCounters;
+        this.dueDateIndex = dueDateIndex;
+        this.eventPublisher = eventPublisher;
+        this.writeBehind = writeBehind.getIfAvailable();
+        this.columns = columns.getIfAvailable();
     }
 
     // create or update a todo
     public Todo saveTodo(Todo todo) {
+        if (writeBehind != null) {
+            return Optional.ofNullable(todo.getId())
+                    .flatMap(id -> modifyTodo(id, null, existing -> copyEditableFields(todo, existing)))
+                    .orElseGet(() -> writeBehind.create(todo));
+        }
         return todoRepository.save(todo);
     }
 
+    // replace the editable fields of an existing todo, empty if there is no such todo
+    @Transactional
+    public Optional<Todo> updateTodo(Long id, Todo changes) {
+        return updateTodo(id, changes, null);
+    }
+
+    // as above, but only if the todo is still at expectedVersion (null: any version). A write
+    // that commits in between is caught by the @Version check on flush.
+    @Transactional
+    public Optional<Todo> updateTodo(Long id, Todo changes, Long expectedVersion) {
+        return modifyTodo(id, expectedVersion, todo -> copyEditableFields(changes, todo));
+    }
+
+    // apply a merge patch to one todo. The UPDATE only sets the patched columns that actually
+    // changed, and there is no UPDATE at all when nothing did.
+    @Transactional
+    public Optional<Todo> patchTodo(Long id, TodoPatch patch, Long expectedVersion) {
+        return modifyTodo(id, expectedVersion, patch::applyTo);
+    }
+
+    // apply a merge patch to every todo matching the query with set-based UPDATEs, returns how
+    // many todos changed. The UPDATEs skip the entity listeners, so the events are published
+    // here, chunk by chunk. One timestamp, as the column stores it, for the completedAt the
+    // database gets and the one the events carry.
+    @Transactional
+    public int patchTodos(TodoQuery query, TodoPatch patch) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        return todoRepository.updateMatching(query, patch, now, chunk -> chunk.forEach(todo ->
+                eventPublisher.publishEvent(new TodoChangedEvent(todo, patch.applyTo(todo, now)))));
+    }
+
+    // Batch writes: each runs in one transaction and the JDBC statements are sent in batches.
+    // Items that can't be applied are reported per index instead of failing the whole batch.
+    @Transactional
+    public List<BatchItemResult> createTodos(List<Todo> todos) {
+        List<BatchItemResult> results = new ArrayList<>(todos.size());
+        List<Todo> valid = new ArrayList<>(todos.size());
+        for (int i = 0; i < todos.size(); i++) {
+            Todo todo = todos.get(i);
+            if (todo.getTitle() == null || todo.getTitle().isBlank()) {
+                results.add(BatchItemResult.invalid(i, null, "title is required"));
+            } else {
+                todo.setId(null); // always insert, never merge into an existing row
+                valid.add(todo);
+                results.add(null);
+            }
+        }
+        todoRepository.saveAll(valid); // ids come from the sequence, the INSERTs go out at commit
+        for (int i = 0; i < todos.size(); i++) {
+            if (results.get(i) == null) {
+                results.set(i, BatchItemResult.of(i, todos.get(i).getId(), BatchItemResult.Status.CREATED));
+            }
+        }
+        return results;
+    }
+
+    @Transactional
+    public List<BatchItemResult> updateTodos(List<Todo> todos) {
+        Map<Long, Todo> existing = findAllById(todos.stream().map(Todo::getId).toList());
+        List<BatchItemResult> results = new ArrayList<>(todos.size());
+        for (int i = 0; i < todos.size(); i++) {
+            Todo changes = todos.get(i);
+            Todo todo = changes.getId() == null ? null : existing.get(changes.getId());
+            if (changes.getId() == null) {
+                results.add(BatchItemResult.invalid(i, null, "id is required"));
+            } else if (todo == null) {
+                results.add(BatchItemResult.of(i, changes.getId(), BatchItemResult.Status.NOT_FOUND));
+            } else if (changes.getTitle() == null || changes.getTitle().isBlank()) {
+                results.add(BatchItemResult.invalid(i, changes.getId(), "title is required"));
+            } else {
+                copyEditableFields(changes, todo); // managed, flushed as batched UPDATEs on commit
+                results.add(BatchItemResult.of(i, todo.getId(), BatchItemResult.Status.UPDATED));
+            }
+        }
+        return results;
+    }
+
+    @Transactional
+    public List<BatchItemResult> deleteTodos(List<Long> ids) {
+        Map<Long, Todo> existing = findAllById(ids);
+        todoRepository.deleteAll(existing.values());
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            results.add(id == null
+                    ? BatchItemResult.invalid(i, null, "id is required")
+                    : BatchItemResult.of(i, id, existing.containsKey(id)
+                            ? BatchItemResult.Status.DELETED
+                            : BatchItemResult.Status.NOT_FOUND));
+        }
+        return results;
+    }
+
     // read all todos
+    @Coalesced
+    @Transactional(readOnly = true)
     public List<Todo> getAllTodos() {
         return todoRepository.findAll();
     }
 
+    // read one page of todos ordered by id, starting after the given id (null for the first page)
+    @Coalesced
+    @Transactional(readOnly = true)
+    public List<Todo> getTodosAfter(Long afterId, int limit) {
+        return todoRepository.findByIdGreaterThanOrderByIdAsc(afterId == null ? 0L : afterId, Limit.of(limit));
+    }
+
+    // visit every todo without holding the whole table in memory
+    @Transactional(readOnly = true)
+    public void forEachTodo(Consumer<Todo> action) {
+        try (Stream<Todo> todos = todoRepository.streamAllBy()) {
+            todos.forEach(todo -> {
+                action.accept(todo);
+                entityManager.detach(todo); // keep the persistence context from growing with the table
+            });
+        }
+    }
+
     // read a todo by id
+    @Cacheable(TodoCaches.TODO_BY_ID)
+    @Transactional(readOnly = true)
     public Optional<Todo> getTodoById(Long id) {
-        return todoRepository.findById(id);
+        return ReadYourWrites.onPrimary(() -> {
+            if (writeBehind != null) {
+                return writeBehind.find(id, () -> todoRepository.findById(id));
+            }
+            return todoRepository.findById(id);
+        });
     }
 
     // delete a todo
     public void deleteTodo(Long id) {
+        if (writeBehind != null) {
+            writeBehind.delete(id, () -> todoRepository.findById(id));
+            return;
+        }
         todoRepository.deleteById(id);
     }
 
     // filter todos by completed status
+    @Cacheable(TodoCaches.TODOS_BY_COMPLETED)
+    @Coalesced
+    @Transactional(readOnly = true)
     public List<Todo> getCompletedTodos(boolean completed) {
-        return todoRepository.findByCompleted(completed);
+        if (columns != null) {
+            return scan(new TodoQuery(completed, null, null, null, null), TodoColumnStore.Order.ID);
+        }
+        return ReadYourWrites.onPrimary(() -> todoRepository.findByCompleted(completed));
+    }
+
+    // the latest limit completed todos, archived ones included, latest completion first: todos
+    // are archived a while after their completion, so the ones still in the todo table come before
+    // the archive. Each table is read in that order up to limit rows and the two are merged.
+    @Coalesced
+    @Transactional(readOnly = true)
+    public List<Todo> getCompletedTodosWithArchive(int limit) {
+        List<Todo> todos = new ArrayList<>(
+                todoRepository.findByCompletedTrueOrderByCompletedAtDescIdDesc(Limit.of(limit)));
+        archivedTodoRepository.findByOrderByCompletedAtDescIdDesc(Limit.of(limit))
+                .forEach(archived -> todos.add(archived.toTodo()));
+        return todos.stream()
+                .sorted(LATEST_COMPLETION)
+                .limit(limit)
+                .toList();
     }
 
-    public List<Todo> getTodosByTitle(String title) {
-        return todoRepository.findByTitleContaining(title);
+    // todos whose title contains every word of the given title (as a word prefix), best match first
+    @Coalesced
+    @Transactional(readOnly = true)
+    public List<Todo> getTodosByTitle(String title, int limit) {
+        return findAllInOrder(searchIndex.search(TenantContext.current(), title, limit, true));
+    }
+
+    // ranked full-text search, todos matching more of the query words come first
+    @Coalesced
+    @Transactional(readOnly = true)
+    public List<Todo> searchTodos(String query, int limit) {
+        return findAllInOrder(searchIndex.search(TenantContext.current(), query, limit, false));
     }
 
     // Priority-based methods
+    @Cacheable(TodoCaches.TODOS_BY_PRIORITY)
+    @Coalesced
+    @Transactional(readOnly = true)
     public List<Todo> getTodosByPriority(Todo.Priority priority) {
-        return todoRepository.findByPriority(priority);
+        if (columns != null) {
+            return scan(new TodoQuery(null, Set.of(priority), null, null, null), TodoColumnStore.Order.ID);
+        }
+        return ReadYourWrites.onPrimary(() -> todoRepository.findByPriority(priority));
     }
 
+    @Coalesced
+    @Transactional(readOnly = true)
     public List<Todo> getTodosByPriorityAndCompleted(Todo.Priority priority, boolean completed) {
+        if (columns != null) {
+            return scan(new TodoQuery(completed, Set.of(priority), null, null, null), TodoColumnStore.Order.ID);
+        }
         return todoRepository.findByPriorityAndCompleted(priority, completed);
     }
 
     // Due date methods
+    @Coalesced
+    @Transactional(readOnly = true)
     public List<Todo> getTodosByDueDate(LocalDate dueDate) {
+        if (columns != null) {
+            return scan(new TodoQuery(null, null, dueDate, dueDate, null), TodoColumnStore.Order.ID);
+        }
         return todoRepository.findByDueDate(dueDate);
     }
 
+    // the due date lookups below take their ids from the in-memory index and load only those rows
+    @Coalesced
+    @Transactional(readOnly = true)
     public List<Todo> getTodosDueBefore(LocalDate date) {
-        return todoRepository.findByDueDateBefore(date);
+        if (columns != null) {
+            return scan(new TodoQuery(null, null, null, date.minusDays(1), null), TodoColumnStore.Order.URGENCY);
+        }
+        return findAllByUrgency(dueDateIndex.dueBefore(TenantContext.current(), date));
     }
 
+    @Coalesced
+    @Transactional(readOnly = true)
     public List<Todo> getTodosDueAfter(LocalDate date) {
+        if (columns != null) {
+            return scan(new TodoQuery(null, null, date.plusDays(1), null, null), TodoColumnStore.Order.ID);
+        }
         return todoRepository.findByDueDateAfter(date);
     }
 
+    @Coalesced
+    @Transactional(readOnly = true)
     public List<Todo> getTodosByDateRange(LocalDate startDate, LocalDate endDate) {
-        return todoRepository.findTodosByDateRange(startDate, endDate);
+        if (columns != null) {
+            return scan(new TodoQuery(null, null, startDate, endDate, null), TodoColumnStore.Order.URGENCY);
+        }
+        return findAllByUrgency(dueDateIndex.dueBetween(TenantContext.current(), startDate, endDate));
     }
 
+    // keyed by day so the cached list never outlives the date it was computed for
+    @Cacheable(cacheNames = TodoCaches.OVERDUE_TODOS,
+            key = "T(com.pdi_technologies.CRUD_presentation.cache.TodoCacheKey).of(T(java.time.LocalDate).now())")
+    @Coalesced
+    @Transactional(readOnly = true)
     public List<Todo> getOverdueTodos() {
-        return todoRepository.findOverdueTodos(LocalDate.now());
+        if (columns != null) {
+            return scan(new TodoQuery(false, null, null, LocalDate.now(), null), TodoColumnStore.Order.URGENCY);
+        }
+        return ReadYourWrites.onPrimary(
+                () -> findAllByUrgency(dueDateIndex.overdue(TenantContext.current(), LocalDate.now())));
     }
 
     // Combined filtering methods
+    @Coalesced
+    @Transactional(readOnly = true)
     public List<Todo> getTodosByPriorityAndDueDate(Todo.Priority priority, LocalDate dueDate) {
-        return todoRepository.findByPriority(priority).stream()
-                .filter(todo -> todo.getDueDate() != null && todo.getDueDate().equals(dueDate))
+        if (columns != null) {
+            return scan(new TodoQuery(null, Set.of(priority), dueDate, dueDate, null), TodoColumnStore.Order.ID);
+        }
+        return todoRepository.findByPriorityAndDueDate(priority, dueDate);
+    }
+
+    // any combination of filters as one query, most urgent first
+    @Coalesced
+    @Transactional(readOnly = true)
+    public List<Todo> queryTodos(TodoQuery query, int limit) {
+        if (columns != null) {
+            return columns.find(TenantContext.current(), query, TodoColumnStore.Order.URGENCY, limit);
+        }
+        return todoRepository.findBy(
+                TodoSpecifications.orderedByUrgency(TodoSpecifications.matching(query)),
+                q -> q.limit(limit).all());
+    }
+
+    // Sparse fieldsets: the reads above that go to the table each time, selecting only the given
+    // columns. No entities are loaded, so there is nothing to hydrate, track or snapshot.
+    @Coalesced
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getTodoFieldsAfter(Long afterId, Set<TodoField> fields, int limit) {
+        return todoRepository.findFields(
+                TodoSpecifications.idGreaterThan(afterId == null ? 0L : afterId), fields, Limit.of(limit));
+    }
+
+    // ordered by id, like the derived finders
+    @Coalesced
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findTodoFields(TodoQuery query, Set<TodoField> fields) {
+        return todoRepository.findFields(TodoSpecifications.matching(query), fields, Limit.unlimited());
+    }
+
+    // most urgent first, like queryTodos
+    @Coalesced
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> queryTodoFields(TodoQuery query, Set<TodoField> fields, int limit) {
+        return todoRepository.findFields(
+                TodoSpecifications.orderedByUrgency(TodoSpecifications.matching(query)), fields, Limit.of(limit));
+    }
+
+    // dashboard counts, kept up to date in memory on every write
+    public TodoStats getStats() {
+        return statsCounters.stats(TenantContext.current());
+    }
+
+    private List<Todo> scan(TodoQuery query, TodoColumnStore.Order order) {
+        return columns.find(TenantContext.current(), query, order, Integer.MAX_VALUE);
+    }
+
+    // load by primary key, keeping the order of the given ids
+    private List<Todo> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> position = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            position.put(ids.get(i), i);
+        }
+        return todoRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(todo -> position.get(todo.getId())))
                 .toList();
     }
 
+    // load by primary key, most urgent first, then earliest due date
+    private List<Todo> findAllByUrgency(List<Long> ids) {
+        List<Todo> todos = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += ID_LOOKUP_CHUNK) {
+            todos.addAll(todoRepository.findAllById(ids.subList(from, Math.min(ids.size(), from + ID_LOOKUP_CHUNK))));
+        }
+        todos.sort(BY_URGENCY);
+        return todos;
+    }
 
+    private Optional<Todo> modifyTodo(Long id, Long expectedVersion, Consumer<Todo> modification) {
+        if (writeBehind != null) {
+            return writeBehind.modify(id, expectedVersion, modification, () -> todoRepository.findById(id));
+        }
+        return todoRepository.findById(id).map(todo -> {
+            if (expectedVersion != null && todo.getVersion() != expectedVersion) {
+                throw new OptimisticLockingFailureException(
+                        "Todo " + id + " is at version " + todo.getVersion() + ", not " + expectedVersion);
+            }
+            modification.accept(todo);
+            return todo;
+        });
+    }
+
+    private static void copyEditableFields(Todo source, Todo target) {
+        target.setTitle(source.getTitle());
+        target.setCompleted(source.isCompleted());
+        target.setPriority(source.getPriority());
+        target.setDueDate(source.getDueDate());
+    }
+
+    private Map<Long, Todo> findAllById(List<Long> ids) {
+        List<Long> present = ids.stream().filter(id -> id != null).distinct().toList();
+        return todoRepository.findAllById(present).stream()
+                .collect(Collectors.toMap(Todo::getId, Function.identity()));
+    }
 }
@@ -0,0 +1,83 @@
+package com.pdi_technologies.CRUD_presentation.stats;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.springframework.stereotype.Component;
+
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.CRUD_presentation.domain.TodoSnapshot;
+import com.pdi_technologies.CRUD_presentation.dto.TodoStats;
+import com.pdi_technologies.CRUD_presentation.event.TodoChangedEvent;
+import com.pdi_technologies.CRUD_presentation.event.TodoReadModel;
+
+// Counters behind /api/todos/stats, one set per tenant. Every change subtracts the todo's
+// previous contribution and adds its new one, so reading the stats never scans the table.
+//
+// Open todos are also counted per due date; the overdue total is derived from that once per day
+// and then adjusted by each change, so it stays O(1) to read across midnight too.
+@Component
+public class TodoStatsCounters implements TodoReadModel {
+
+    private final Map<String, Counters> countersByTenant = new HashMap<>();
+
+    @Override
+    public synchronized void apply(TodoChangedEvent event) {
+        if (event.previous() != null) {
+            counters(event.previous().tenantId()).add(event.previous(), -1);
+        }
+        if (event.current() != null) {
+            counters(event.current().tenantId()).add(event.current(), 1);
+        }
+    }
+
+    public synchronized TodoStats stats(String tenantId) {
+        return counters(tenantId).stats(LocalDate.now());
+    }
+
+    private Counters counters(String tenantId) {
+        return countersByTenant.computeIfAbsent(tenantId, t -> new Counters());
+    }
+
+    private static class Counters {
+
+        private final long[][] counts = new long[Todo.Priority.values().length][2]; // [priority][completed]
+        private final NavigableMap<LocalDate, Long> openByDueDate = new TreeMap<>();
+        private LocalDate overdueAsOf;
+        private long overdue;
+
+        TodoStats stats(LocalDate today) {
+            if (!today.equals(overdueAsOf)) {
+                overdue = openByDueDate.headMap(today, true).values().stream().mapToLong(Long::longValue).sum();
+                overdueAsOf = today;
+            }
+            Map<Todo.Priority, TodoStats.Counts> byPriority = new EnumMap<>(Todo.Priority.class);
+            long total = 0;
+            long completed = 0;
+            for (Todo.Priority priority : Todo.Priority.values()) {
+                long open = counts[priority.ordinal()][0];
+                long done = counts[priority.ordinal()][1];
+                byPriority.put(priority, new TodoStats.Counts(open + done, done, open));
+                total += open + done;
+                completed += done;
+            }
+            return new TodoStats(total, completed, total - completed, overdue,
+                    openByDueDate.getOrDefault(today, 0L), byPriority, today);
+        }
+
+        void add(TodoSnapshot todo, int delta) {
+            counts[todo.priority().ordinal()][todo.completed() ? 1 : 0] += delta;
+            if (todo.completed() || todo.dueDate() == null) {
+                return;
+            }
+            openByDueDate.merge(todo.dueDate(), (long) delta, (a, b) -> a + b == 0 ? null : a + b);
+            if (overdueAsOf != null && !todo.dueDate().isAfter(overdueAsOf)) {
+                overdue += delta;
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.pdi_technologies.CRUD_presentation.tenant;
+
+import java.util.function.Supplier;
+
+// The tenant the current thread works for. Hibernate reads it when a session opens and then
+// restricts every query of that session to the tenant's todos and stamps it on new ones.
+//
+// ROOT is only used internally, for work that has to see every tenant such as loading the read
+// models at startup; it never comes from a request.
+public final class TenantContext {
+
+    public static final String DEFAULT = "default";
+    public static final String ROOT = "*";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String current() {
+        String tenant = CURRENT.get();
+        return tenant != null ? tenant : DEFAULT;
+    }
+
+    public static <T> T callAs(String tenant, Supplier<T> action) {
+        String previous = CURRENT.get();
+        CURRENT.set(tenant);
+        try {
+            return action.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    public static void runAs(String tenant, Runnable action) {
+        callAs(tenant, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    static void set(String tenant) {
+        CURRENT.set(tenant);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,124 @@
+package com.pdi_technologies.CRUD_presentation.transfer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.CRUD_presentation.dto.ImportResult;
+import com.pdi_technologies.CRUD_presentation.dto.TodoImportRow;
+import com.pdi_technologies.CRUD_presentation.repository.TodoRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Writes a parsed upload chunk by chunk, each chunk in its own transaction of batched INSERTs.
+// Rows are only read from the upload while the previous chunk is being written, so a fast
+// client is held back by TCP flow control rather than buffered, and memory stays at one chunk
+// however large the upload is. Committed chunks stay when a later row turns out malformed.
+//
+// Every imported row is an insert like any other, so it fires its own TodoChangedEvent when its
+// chunk commits: the read models need each new todo anyway, but a large import reaches
+// change-feed subscribers as a flood, most of them overflow their buffer and get a "reset" to
+// reload the list. Cached queries are evicted once per row, each chunk bumps the tenant's
+// change counter chunk-size times; both are cheap next to the inserts themselves.
+@Component
+public class TodoImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoImporter.class);
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final TodoRepository todoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter importedCounter;
+    private final int chunkSize;
+    private final int progressEvery;
+
+    public TodoImporter(TodoRepository todoRepository, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${todo.import.chunk-size:1000}") int chunkSize,
+            @Value("${todo.import.progress-every:100000}") int progressEvery) {
+        this.todoRepository = todoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.importedCounter = Counter.builder("todo.import.todos")
+                .description("Todos created by imports")
+                .register(meterRegistry);
+        this.chunkSize = chunkSize;
+        this.progressEvery = progressEvery;
+    }
+
+    // throws MalformedImportException for input that can't be parsed, with the rows before it
+    // already imported
+    public ImportResult importTodos(MappingIterator<TodoImportRow> rows) throws IOException {
+        long started = System.nanoTime();
+        long imported = 0;
+        long rejected = 0;
+        List<String> errors = new ArrayList<>();
+        List<Todo> chunk = new ArrayList<>(chunkSize);
+        try {
+            while (rows.hasNextValue()) {
+                TodoImportRow row = rows.nextValue();
+                if (row.title() == null || row.title().isBlank()) {
+                    rejected++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add("line " + rows.getCurrentLocation().getLineNr() + ": title is required");
+                    }
+                    continue;
+                }
+                chunk.add(row.toTodo());
+                if (chunk.size() == chunkSize) {
+                    imported += write(chunk);
+                    if (imported % progressEvery < chunkSize) {
+                        log.info("Imported {} todos, {}/s", imported, perSecond(imported, started));
+                    }
+                }
+            }
+        } catch (JsonProcessingException e) {
+            imported += write(chunk);
+            // mapping errors raised outside the parser carry no location
+            JsonLocation location = e.getLocation();
+            throw new MalformedImportException((location != null ? "Line " + location.getLineNr() + ": " : "")
+                    + e.getOriginalMessage() + " (" + imported + " todos imported before it)", e);
+        }
+        imported += write(chunk);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("Import done: {} todos imported, {} rejected in {} ms", imported, rejected, elapsed);
+        return new ImportResult(imported, rejected, errors, elapsed, perSecond(imported, started));
+    }
+
+    private int write(List<Todo> chunk) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        // new todos with sequence ids, sent as JDBC batches on commit
+        transactionTemplate.executeWithoutResult(status -> todoRepository.saveAll(chunk));
+        int written = chunk.size();
+        importedCounter.increment(written);
+        chunk.clear();
+        return written;
+    }
+
+    private static long perSecond(long count, long startedNanos) {
+        long elapsed = System.nanoTime() - startedNanos;
+        return elapsed > 0 ? count * TimeUnit.SECONDS.toNanos(1) / elapsed : count;
+    }
+
+    public static class MalformedImportException extends RuntimeException {
+
+        MalformedImportException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
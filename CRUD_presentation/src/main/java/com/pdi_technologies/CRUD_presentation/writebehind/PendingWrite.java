@@ -0,0 +1,67 @@
+package com.pdi_technologies.CRUD_presentation.writebehind;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.CRUD_presentation.domain.TodoSnapshot;
+
+// The latest acknowledged state of one todo that the database doesn't have yet, as logged and
+// as queued for the flusher. stored: the row exists in the database, so the flush is an UPDATE
+// (or DELETE) rather than an INSERT (or nothing at all). storedVersion: the version of that row
+// the write was based on, the flush only changes the row while it is still at that version.
+record PendingWrite(
+        long id,
+        String tenantId,
+        String title,
+        boolean completed,
+        LocalDateTime createdAt,
+        LocalDateTime completedAt,
+        Todo.Priority priority,
+        LocalDate dueDate,
+        long version,
+        boolean deleted,
+        boolean stored,
+        long storedVersion) {
+
+    static PendingWrite of(Todo todo, boolean stored, long storedVersion) {
+        return new PendingWrite(todo.getId(), todo.getTenantId(), todo.getTitle(), todo.isCompleted(),
+                todo.getCreatedAt(), todo.getCompletedAt(), todo.getPriority(), todo.getDueDate(), todo.getVersion(),
+                false, stored, storedVersion);
+    }
+
+    static PendingWrite deletionOf(Todo todo) {
+        return new PendingWrite(todo.getId(), todo.getTenantId(), todo.getTitle(), todo.isCompleted(),
+                todo.getCreatedAt(), todo.getCompletedAt(), todo.getPriority(), todo.getDueDate(), todo.getVersion(),
+                true, true, todo.getVersion());
+    }
+
+    // this write queued behind an earlier one for the same todo; null when nothing is left to do
+    PendingWrite after(PendingWrite earlier) {
+        return deleted && !earlier.stored ? null : withStored(earlier.stored, earlier.storedVersion);
+    }
+
+    PendingWrite withStored(boolean stored, long storedVersion) {
+        return new PendingWrite(id, tenantId, title, completed, createdAt, completedAt, priority, dueDate, version,
+                deleted, stored, storedVersion);
+    }
+
+    // a detached copy, changing it doesn't change the pending state
+    Todo toTodo() {
+        Todo todo = new Todo();
+        todo.setId(id);
+        todo.setTenantId(tenantId);
+        todo.setTitle(title);
+        todo.setCompleted(completed);
+        todo.setCreatedAt(createdAt);
+        todo.setCompletedAt(completedAt);
+        todo.setPriority(priority);
+        todo.setDueDate(dueDate);
+        todo.setVersion(version);
+        return todo;
+    }
+
+    TodoSnapshot toSnapshot() {
+        return new TodoSnapshot(id, tenantId, title, completed, createdAt, priority, dueDate, completedAt, version);
+    }
+}
@@ -0,0 +1,422 @@
+package com.pdi_technologies.CRUD_presentation.writebehind;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pdi_technologies.CRUD_presentation.cache.TodoCacheInvalidator;
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.CRUD_presentation.domain.TodoSnapshot;
+import com.pdi_technologies.CRUD_presentation.event.TodoChangedEvent;
+import com.pdi_technologies.CRUD_presentation.tenant.TenantContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+
+// Write-behind for single todo creates, updates and deletes (todo.write-behind.enabled).
+//
+// A write is acknowledged once it is in the WriteBehindLog and in the pending map, which reads
+// by id look at first, and the todo's own cache entry is evicted. Every flush-interval the
+// pending map is applied to the database in one transaction of JDBC batches. Repeated writes to
+// a todo in between coalesce into one statement, and a todo created and deleted in between never
+// reaches the database at all.
+//
+// The TodoChangedEvents of the writes are held back and published in the flush's transaction,
+// so the change tracker, query caches, read models and change feed see a write once the table
+// has it. Publishing them earlier would bump the ETags while list reads still return the old
+// rows, and those reads would be cached and answered with 304s under the new ETag.
+//
+// On startup whatever the log holds beyond its last checkpoint is replayed and flushed before
+// the application serves anything. List and query endpoints read the database, so they see a
+// write after its flush.
+//
+// The batch and bulk endpoints and the archiver still write through. A flushed UPDATE or DELETE
+// only applies while the row is at the version the write was based on; when one of them changed
+// the row in between, the acknowledged write is dropped and logged as a conflict rather than
+// overwriting or resurrecting the row. When the database rejects a batch, its writes are applied
+// one by one and only those rejected on their own are dropped, so a bad row can't stall every
+// later flush, and with them every writer once the log is full.
+@Component
+@ConditionalOnProperty(name = "todo.write-behind.enabled", havingValue = "true")
+@RegisterReflectionForBinding(PendingWrite.class) // logged as JSON, a native image needs the hints
+public class TodoWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoWriteBehind.class);
+
+    private static final int TITLE_LENGTH = 255;
+    private static final int ID_LOOKUP_CHUNK = 1000;
+    private static final int LOCK_STRIPES = 64;
+
+    private static final String INSERT = "INSERT INTO todo "
+            + "(id, tenant_id, title, completed, created_at, completed_at, priority, due_date, version) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE = "UPDATE todo "
+            + "SET title = ?, completed = ?, completed_at = ?, priority = ?, due_date = ?, version = ? "
+            + "WHERE id = ? AND tenant_id = ? AND version = ?";
+    private static final String DELETE = "DELETE FROM todo WHERE id = ? AND tenant_id = ? AND version = ?";
+
+    private final WriteBehindLog writeLog;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TodoCacheInvalidator cacheInvalidator;
+    private final MeterRegistry meterRegistry;
+    private final Map<Long, PendingWrite> pending = new ConcurrentHashMap<>(); // written under this
+    private final List<TodoChangedEvent> unpublished = new ArrayList<>(); // guarded by this, in write order
+    private final Object[] stripes = new Object[LOCK_STRIPES];
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public TodoWriteBehind(ObjectMapper objectMapper, JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager, EntityManager entityManager,
+            ApplicationEventPublisher eventPublisher, TodoCacheInvalidator cacheInvalidator,
+            MeterRegistry meterRegistry,
+            @Value("${todo.write-behind.log-path:data/todo-write-behind.log}") Path logPath,
+            @Value("${todo.write-behind.log-size:64MB}") DataSize logSize,
+            @Value("${todo.write-behind.fsync:true}") boolean fsync) throws IOException {
+        this.writeLog = new WriteBehindLog(logPath, (int) logSize.toBytes(), fsync);
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.cacheInvalidator = cacheInvalidator;
+        this.meterRegistry = meterRegistry;
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Object();
+        }
+        Gauge.builder("todo.write-behind.pending", pending, Map::size)
+                .description("Acknowledged todo writes not yet in the database")
+                .register(meterRegistry);
+    }
+
+    // replay what the last run acknowledged but didn't get to apply
+    @PostConstruct
+    void recover() {
+        List<PendingWrite> writes = new ArrayList<>();
+        for (byte[] payload : writeLog.unapplied()) {
+            writes.add(read(payload));
+        }
+        if (writes.isEmpty()) {
+            return;
+        }
+        // replayed writes may have been applied already, the database says which rows exist and
+        // at which version, the replay is based on that
+        Map<Long, Long> stored = storedVersions(writes.stream().map(PendingWrite::id).distinct().toList());
+        synchronized (this) {
+            for (PendingWrite write : writes) {
+                PendingWrite replayed = write.withStored(stored.containsKey(write.id()),
+                        stored.getOrDefault(write.id(), 0L));
+                pending.merge(write.id(), replayed, (earlier, later) -> later.after(earlier));
+            }
+        }
+        log.info("Replaying {} logged todo writes ({} todos)", writes.size(), pending.size());
+        flush();
+    }
+
+    // the pending state of a todo of the current tenant if there is one (empty when it is
+    // pending deletion), otherwise what stored returns
+    public Optional<Todo> find(Long id, Supplier<Optional<Todo>> stored) {
+        PendingWrite write = pending.get(id);
+        if (write == null || !write.tenantId().equals(TenantContext.current())) {
+            return stored.get();
+        }
+        return write.deleted() ? Optional.empty() : Optional.of(write.toTodo());
+    }
+
+    public Todo create(Todo todo) {
+        validate(todo);
+        Todo created = new Todo();
+        created.setTenantId(TenantContext.current());
+        created.setTitle(todo.getTitle());
+        created.setCompleted(todo.isCompleted());
+        created.setCompletedAt(todo.getCompletedAt());
+        created.setCreatedAt(todo.getCreatedAt());
+        created.setPriority(todo.getPriority());
+        created.setDueDate(todo.getDueDate());
+        created.setId(nextId(created));
+        PendingWrite write = PendingWrite.of(created, false, 0);
+        submit(write, new TodoChangedEvent(null, write.toSnapshot()));
+        return write.toTodo();
+    }
+
+    // as TodoService.updateTodo: empty if there is no such todo, version checked against the
+    // pending state, and no write at all when the modification changes nothing
+    public Optional<Todo> modify(Long id, Long expectedVersion, Consumer<Todo> modification,
+            Supplier<Optional<Todo>> stored) {
+        synchronized (stripe(id)) {
+            return find(id, stored).map(current -> {
+                if (expectedVersion != null && current.getVersion() != expectedVersion) {
+                    throw new OptimisticLockingFailureException(
+                            "Todo " + id + " is at version " + current.getVersion() + ", not " + expectedVersion);
+                }
+                TodoSnapshot previous = TodoSnapshot.of(current);
+                Todo modified = PendingWrite.of(current, true, current.getVersion()).toTodo();
+                modification.accept(modified);
+                if (TodoSnapshot.of(modified).equals(previous)) {
+                    return current;
+                }
+                validate(modified);
+                modified.setVersion(current.getVersion() + 1);
+                // based on the stored row, or on the one an earlier pending write is based on
+                PendingWrite write = PendingWrite.of(modified, true, current.getVersion());
+                submit(write, new TodoChangedEvent(previous, write.toSnapshot()));
+                return write.toTodo();
+            });
+        }
+    }
+
+    public void delete(Long id, Supplier<Optional<Todo>> stored) {
+        synchronized (stripe(id)) {
+            find(id, stored).ifPresent(current ->
+                    submit(PendingWrite.deletionOf(current), new TodoChangedEvent(TodoSnapshot.of(current), null)));
+        }
+    }
+
+    // apply everything pending in one transaction, whose commit then publishes the events; a batch
+    // the database rejects is retried write by write
+    @Scheduled(fixedDelayString = "${todo.write-behind.flush-interval:200ms}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Long, PendingWrite> batch;
+            List<TodoChangedEvent> events;
+            int logged;
+            synchronized (this) {
+                logged = writeLog.position();
+                if (pending.isEmpty()) {
+                    if (!writeLog.isEmpty()) {
+                        writeLog.checkpoint(logged);
+                    }
+                    return;
+                }
+                batch = new HashMap<>(pending);
+                events = new ArrayList<>(unpublished);
+                unpublished.clear();
+            }
+            Set<Long> settled = new HashSet<>(); // applied, or dropped for good
+            try {
+                try {
+                    conflicts(transactionTemplate.execute(status -> apply(batch.values(), events)));
+                    settled.addAll(batch.keySet());
+                } catch (DataIntegrityViolationException e) {
+                    log.warn("The database rejected a write-behind batch of {} todos, applying them one by one",
+                            batch.size(), e);
+                    for (PendingWrite write : batch.values()) {
+                        List<TodoChangedEvent> own = events.stream().filter(event -> event.id().equals(write.id())).toList();
+                        try {
+                            conflicts(transactionTemplate.execute(status -> apply(List.of(write), own)));
+                        } catch (DataIntegrityViolationException rejected) {
+                            log.error("Dropping the acknowledged write of todo {}, the database rejects it", write.id(),
+                                    rejected);
+                            drop(write, "rejected");
+                        }
+                        settled.add(write.id());
+                    }
+                }
+            } finally {
+                synchronized (this) {
+                    // writes that came in during the flush stay pending, now against the row state it left
+                    for (Long id : settled) {
+                        PendingWrite flushed = batch.get(id);
+                        pending.computeIfPresent(id, (key, current) -> current == flushed
+                                ? null
+                                : current.withStored(!flushed.deleted(), flushed.version()));
+                    }
+                    // published by the flush that gets their writes through
+                    unpublished.addAll(0, events.stream().filter(event -> !settled.contains(event.id())).toList());
+                    if (settled.size() == batch.size()) {
+                        writeLog.checkpoint(logged);
+                    }
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            writeLog.close();
+        }
+    }
+
+    private void submit(PendingWrite write, TodoChangedEvent event) {
+        byte[] payload = write(write);
+        if (!writeLog.fits(payload)) {
+            throw new IllegalStateException("Todo " + write.id() + " does not fit in the write-behind log");
+        }
+        while (true) {
+            synchronized (this) {
+                if (writeLog.append(payload)) {
+                    pending.merge(write.id(), write, (earlier, later) -> later.after(earlier));
+                    unpublished.add(event);
+                    cacheInvalidator.evictTodo(write.tenantId(), write.id());
+                    return;
+                }
+            }
+            // the log is full: flush on this thread, which also makes room
+            flush();
+        }
+    }
+
+    // applies the writes and publishes the events of those that got through, returns the writes
+    // that found their row at another version (or gone)
+    private List<PendingWrite> apply(Collection<PendingWrite> writes, List<TodoChangedEvent> events) {
+        List<Object[]> inserts = new ArrayList<>();
+        List<PendingWrite> updated = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<PendingWrite> deleted = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        for (PendingWrite write : writes) {
+            if (write.deleted()) {
+                if (write.stored()) {
+                    deleted.add(write);
+                    deletes.add(new Object[] {write.id(), write.tenantId(), write.storedVersion()});
+                }
+            } else if (write.stored()) {
+                updated.add(write);
+                updates.add(new Object[] {write.title(), write.completed(), write.completedAt(), write.priority().name(),
+                        write.dueDate(), write.version(), write.id(), write.tenantId(), write.storedVersion()});
+            } else {
+                inserts.add(new Object[] {write.id(), write.tenantId(), write.title(), write.completed(),
+                        write.createdAt(), write.completedAt(), write.priority().name(), write.dueDate(), write.version()});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT, inserts);
+        List<PendingWrite> conflicts = new ArrayList<>();
+        conflicts.addAll(unmatched(updated, jdbcTemplate.batchUpdate(UPDATE, updates)));
+        conflicts.addAll(unmatched(deleted, jdbcTemplate.batchUpdate(DELETE, deletes)));
+        Set<Long> conflicting = new HashSet<>();
+        conflicts.forEach(write -> conflicting.add(write.id()));
+        events.stream().filter(event -> !conflicting.contains(event.id())).forEach(eventPublisher::publishEvent);
+        return conflicts;
+    }
+
+    // the writes whose statement matched no row; SUCCESS_NO_INFO, as a rewritten batch may
+    // report, counts as applied
+    private static List<PendingWrite> unmatched(List<PendingWrite> writes, int[] counts) {
+        List<PendingWrite> unmatched = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                unmatched.add(writes.get(i));
+            }
+        }
+        return unmatched;
+    }
+
+    private void conflicts(List<PendingWrite> conflicts) {
+        for (PendingWrite write : conflicts) {
+            log.warn("Dropping the acknowledged write of todo {}: the row is no longer at version {}, "
+                    + "it was changed or deleted by another write", write.id(), write.storedVersion());
+            drop(write, "conflict");
+        }
+    }
+
+    // the pending state of the todo may have been cached by id, the database has the truth
+    private void drop(PendingWrite write, String reason) {
+        cacheInvalidator.evictTodo(write.tenantId(), write.id());
+        Counter.builder("todo.write-behind.dropped")
+                .description("Acknowledged todo writes that could not be applied")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // from the entity's own sequence, so ids never collide with todos written through JPA
+    private Long nextId(Todo todo) {
+        return transactionTemplate.execute(status -> {
+            SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+            BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory().getMappingMetamodel()
+                    .getEntityDescriptor(Todo.class).getGenerator();
+            return (Long) generator.generate(session, todo, null, EventType.INSERT);
+        });
+    }
+
+    // id to version of the rows that exist
+    private Map<Long, Long> storedVersions(List<Long> ids) {
+        Map<Long, Long> versions = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += ID_LOOKUP_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + ID_LOOKUP_CHUNK));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query("SELECT id, version FROM todo WHERE id IN (" + placeholders + ")",
+                    row -> {
+                        versions.put(row.getLong(1), row.getLong(2));
+                    }, chunk.toArray());
+        }
+        return versions;
+    }
+
+    // the constraints the database would check, as a flush can't reject a write anymore
+    private static void validate(Todo todo) {
+        if (todo.getTitle() == null) {
+            throw new DataIntegrityViolationException("title is required");
+        }
+        if (todo.getTitle().length() > TITLE_LENGTH) {
+            throw new DataIntegrityViolationException("title is longer than " + TITLE_LENGTH + " characters");
+        }
+        if (todo.getPriority() == null) {
+            throw new DataIntegrityViolationException("priority is required");
+        }
+    }
+
+    private Object stripe(Long id) {
+        return stripes[Math.floorMod(id.hashCode(), stripes.length)];
+    }
+
+    private byte[] write(PendingWrite write) {
+        try {
+            return objectMapper.writeValueAsBytes(write);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private PendingWrite read(byte[] payload) {
+        try {
+            return objectMapper.readValue(payload, PendingWrite.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.pdi_technologies.CRUD_presentation.writebehind;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Append-only log in a memory-mapped file. Appending is a copy into the mapping (plus an msync
+// of the written range with fsync), no write system call per record.
+//
+// Layout: the position up to which every record has been applied to the database, then records
+// of [length, crc32, payload], the last one followed by a zero length. A record torn by a crash
+// fails its checksum and ends the replay. Once everything in the log is applied it starts over
+// from the beginning, so the file only has to hold what a flush hasn't caught up with yet.
+//
+// Not thread-safe, TodoWriteBehind serializes access.
+class WriteBehindLog implements AutoCloseable {
+
+    private static final int HEADER = 8;
+    private static final int RECORD_HEADER = 8;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final boolean fsync;
+    private int position = HEADER;
+
+    WriteBehindLog(Path path, int size, boolean fsync) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+        this.fsync = fsync;
+    }
+
+    // the payloads not yet applied, in append order; appends continue after the last of them
+    List<byte[]> unapplied() {
+        List<byte[]> payloads = new ArrayList<>();
+        int at = Math.max(HEADER, buffer.getInt(0));
+        while (at + RECORD_HEADER <= buffer.capacity()) {
+            int length = buffer.getInt(at);
+            if (length <= 0 || at + RECORD_HEADER + length > buffer.capacity()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(at + RECORD_HEADER, payload);
+            if (checksum(payload) != buffer.getInt(at + 4)) {
+                break;
+            }
+            payloads.add(payload);
+            at += RECORD_HEADER + length;
+        }
+        position = at;
+        return payloads;
+    }
+
+    // false when the record doesn't fit until the log has been flushed
+    boolean append(byte[] payload) {
+        int end = position + RECORD_HEADER + payload.length;
+        if (end + 4 > buffer.capacity()) {
+            return false;
+        }
+        buffer.putInt(end, 0);
+        buffer.put(position + RECORD_HEADER, payload);
+        buffer.putInt(position + 4, checksum(payload));
+        // the length goes in last, a record is only seen once it's complete
+        buffer.putInt(position, payload.length);
+        if (fsync) {
+            buffer.force(position, end + 4 - position);
+        }
+        position = end;
+        return true;
+    }
+
+    boolean fits(byte[] payload) {
+        return HEADER + RECORD_HEADER + payload.length + 4 <= buffer.capacity();
+    }
+
+    int position() {
+        return position;
+    }
+
+    boolean isEmpty() {
+        return position == HEADER;
+    }
+
+    // everything before appliedUpTo is in the database
+    void checkpoint(int appliedUpTo) {
+        int replayFrom = appliedUpTo;
+        if (appliedUpTo == position) {
+            // nothing left to apply, start over
+            buffer.putInt(HEADER, 0);
+            position = HEADER;
+            replayFrom = HEADER;
+        }
+        buffer.putInt(0, replayFrom);
+        if (fsync) {
+            buffer.force(0, HEADER + 4);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,40 @@
+-- The schema as Hibernate maps the entities for MySQL 8, so ddl-auto=validate accepts it.
+-- Databases built by ddl-auto=update before there were migrations already have it and are
+-- baselined at this version instead (spring.flyway.baseline-on-migrate).
+
+create table todo (
+    completed bit not null,
+    due_date date,
+    completed_at datetime(6),
+    created_at datetime(6),
+    id bigint not null,
+    version bigint not null,
+    tenant_id varchar(64) default 'default' not null,
+    title varchar(255) not null,
+    priority enum ('HIGH','LOW','MEDIUM','URGENT') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table archived_todo (
+    due_date date,
+    archived_at datetime(6),
+    completed_at datetime(6),
+    created_at datetime(6),
+    id bigint not null,
+    tenant_id varchar(64) not null,
+    title varchar(255) not null,
+    priority enum ('HIGH','LOW','MEDIUM','URGENT') not null,
+    primary key (id)
+) engine=InnoDB;
+
+-- MySQL has no sequences, Hibernate keeps todo_seq in a one-row table
+create table todo_seq (
+    next_val bigint
+) engine=InnoDB;
+
+create index idx_todo_tenant_id on todo (tenant_id, id);
+create index idx_todo_tenant_completed_priority_due_date on todo (tenant_id, completed, priority, due_date);
+create index idx_todo_tenant_priority_due_date on todo (tenant_id, priority, due_date);
+create index idx_todo_tenant_due_date on todo (tenant_id, due_date);
+create index idx_todo_completed_completed_at on todo (completed, completed_at);
+create index idx_archived_todo_tenant_completed_at on archived_todo (tenant_id, completed_at);
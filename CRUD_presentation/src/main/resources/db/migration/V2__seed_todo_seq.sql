@@ -0,0 +1,12 @@
+-- Moves todo_seq past every id in use, for new databases and for baselined ones whose rows may
+-- predate the sequence. The pooled optimizer hands out the 50 ids (allocationSize) up to the
+-- value it reads, so that value has to be at least the highest id plus 50.
+
+insert into todo_seq (next_val)
+select 1 from dual where not exists (select * from todo_seq);
+
+update todo_seq
+set next_val = greatest(
+        next_val,
+        (select coalesce(max(id), 0) + 50 from todo),
+        (select coalesce(max(id), 0) + 50 from archived_todo));
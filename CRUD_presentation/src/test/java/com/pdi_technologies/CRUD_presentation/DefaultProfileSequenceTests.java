@@ -0,0 +1,45 @@
+package com.pdi_technologies.CRUD_presentation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.pdi_technologies.CRUD_presentation.config.TodoSequenceSeed;
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.CRUD_presentation.service.TodoService;
+
+// The default profile on a database of its own: ddl-auto=update, no Flyway, and the MySQL
+// dialect, so todo_seq is the one-row table ddl-auto=update creates at 1. Todos written before
+// the sequence existed must not collide with the ids it hands out.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:todo_app_default;MODE=MySQL;IGNORECASE=TRUE;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect",
+        "spring.jpa.hibernate.ddl-auto=update" })
+class DefaultProfileSequenceTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TodoSequenceSeed sequenceSeed;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Test
+    void sequenceIsMovedPastTodosThatPredateIt() {
+        jdbcTemplate.update("insert into todo (id, tenant_id, title, completed, priority, version) "
+                + "values (120, 'default', 'Written before the sequence', false, 'MEDIUM', 0)");
+        jdbcTemplate.update("update todo_seq set next_val = 1");
+
+        sequenceSeed.seed();
+
+        assertThat(jdbcTemplate.queryForObject("select next_val from todo_seq", Long.class)).isEqualTo(170);
+        Todo todo = new Todo();
+        todo.setTitle("Saved after the upgrade");
+        assertThat(todoService.saveTodo(todo).getId()).isGreaterThan(120);
+    }
+}
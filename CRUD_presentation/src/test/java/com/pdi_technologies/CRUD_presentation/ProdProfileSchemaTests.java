@@ -0,0 +1,50 @@
+package com.pdi_technologies.CRUD_presentation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.CRUD_presentation.service.TodoService;
+
+// Boots the prod profile on an empty database of its own: the Flyway migrations have to build a
+// schema that ddl-auto=validate accepts, and leave todo_seq ready for the first insert. H2 in
+// MySQL mode with the MySQL dialect, so todo_seq is validated as the table MySQL needs.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:todo_app_prod;MODE=MySQL;IGNORECASE=TRUE;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect" })
+@ActiveProfiles("prod")
+class ProdProfileSchemaTests {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Value("${spring.jpa.hibernate.ddl-auto}")
+    private String ddlAuto;
+
+    @Test
+    void migrationsBuildTheSchemaHibernateValidates() {
+        assertThat(ddlAuto).isEqualTo("validate");
+        assertThat(flyway.info().applied()).extracting(MigrationInfo::getVersion)
+                .extracting(Object::toString)
+                .containsExactly("1", "2");
+        assertThat(jdbcTemplate.queryForObject("select next_val from todo_seq", Long.class)).isEqualTo(50);
+
+        Todo todo = new Todo();
+        todo.setTitle("Saved on the migrated schema");
+        assertThat(todoService.saveTodo(todo).getId()).isNotNull();
+    }
+}
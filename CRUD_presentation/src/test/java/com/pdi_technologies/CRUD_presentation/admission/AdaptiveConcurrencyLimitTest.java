@@ -0,0 +1,83 @@
+package com.pdi_technologies.CRUD_presentation.admission;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private long now;
+
+    private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(
+            new AdmissionProperties.Limit(8, 2, 10, 0.5, 0.5, Duration.ofMillis(10), Duration.ofMillis(100)),
+            () -> now, new SimpleMeterRegistry());
+
+    @Test
+    void expensiveRequestsLeaveRoomForCheapOnes() {
+        List<AdaptiveConcurrencyLimit.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            permits.add(limit.tryAcquire(RequestCost.EXPENSIVE));
+        }
+        assertThat(permits).doesNotContainNull();
+        assertThat(limit.tryAcquire(RequestCost.EXPENSIVE)).isNull();
+
+        for (int i = 0; i < 4; i++) {
+            permits.add(limit.tryAcquire(RequestCost.CHEAP));
+        }
+        assertThat(permits).doesNotContainNull();
+        assertThat(limit.tryAcquire(RequestCost.CHEAP)).isNull();
+
+        permits.get(0).release();
+        permits.get(0).release(); // a second release doesn't free another slot
+        assertThat(limit.inFlight()).isEqualTo(7);
+        assertThat(limit.tryAcquire(RequestCost.EXPENSIVE)).isNull();
+        assertThat(limit.tryAcquire(RequestCost.CHEAP)).isNotNull();
+    }
+
+    @Test
+    void slowRequestsCutTheLimitOnceAndFastOnesRaiseIt() {
+        List<AdaptiveConcurrencyLimit.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            permits.add(limit.tryAcquire(RequestCost.CHEAP));
+        }
+        now += Duration.ofMillis(50).toNanos();
+        // all six were admitted before the first cut, so only that one counts
+        permits.forEach(AdaptiveConcurrencyLimit.Permit::release);
+        assertThat(limit.limit()).isEqualTo(4);
+
+        // a busy limit grows back with fast requests
+        for (int round = 0; round < 20; round++) {
+            List<AdaptiveConcurrencyLimit.Permit> fast = new ArrayList<>();
+            AdaptiveConcurrencyLimit.Permit permit;
+            while ((permit = limit.tryAcquire(RequestCost.CHEAP)) != null) {
+                fast.add(permit);
+            }
+            now += Duration.ofMillis(1).toNanos();
+            fast.forEach(AdaptiveConcurrencyLimit.Permit::release);
+        }
+        assertThat(limit.limit()).isEqualTo(10);
+
+        now += Duration.ofSeconds(1).toNanos();
+        AdaptiveConcurrencyLimit.Permit slow = limit.tryAcquire(RequestCost.EXPENSIVE);
+        now += Duration.ofMillis(500).toNanos();
+        slow.release();
+        assertThat(limit.limit()).isEqualTo(5);
+    }
+
+    @Test
+    void longTransfersHoldASlotWithoutCuttingTheLimit() {
+        AdaptiveConcurrencyLimit.Permit export = limit.tryAcquire(RequestCost.EXPENSIVE, false);
+        assertThat(limit.inFlight()).isEqualTo(1);
+
+        now += Duration.ofMinutes(5).toNanos();
+        export.release();
+        assertThat(limit.inFlight()).isZero();
+        assertThat(limit.limit()).isEqualTo(8);
+    }
+}
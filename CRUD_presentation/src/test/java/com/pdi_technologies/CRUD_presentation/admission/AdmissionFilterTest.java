@@ -0,0 +1,57 @@
+package com.pdi_technologies.CRUD_presentation.admission;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+// buckets of 6 tokens that take about a minute to refill, so every request in a test counts
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "todo.admission.enabled=true",
+        "todo.admission.client.rate=0.1",
+        "todo.admission.client.burst=6",
+        "todo.admission.client.expensive-cost=3",
+        "todo.admission.client.key-header=X-API-Key" })
+public class AdmissionFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void clientsOverTheirRateGetRetryAfter() throws Exception {
+        mockMvc.perform(get("/api/todos").header("X-API-Key", "looping")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/todos").header("X-API-Key", "looping")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/todos").header("X-API-Key", "looping"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "30"));
+
+        // other clients have their own buckets
+        mockMvc.perform(get("/api/todos").header("X-API-Key", "polite")).andExpect(status().isOk());
+    }
+
+    @Test
+    void singleTodosCostLessThanLists() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            mockMvc.perform(get("/api/todos/{id}", Long.MAX_VALUE).header("X-API-Key", "lookups"))
+                    .andExpect(status().isOk()); // an empty body, there is no such todo
+        }
+        mockMvc.perform(get("/api/todos/{id}", Long.MAX_VALUE).header("X-API-Key", "lookups"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "10"));
+    }
+
+    @Test
+    void actuatorIsNotLimited() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        }
+    }
+}
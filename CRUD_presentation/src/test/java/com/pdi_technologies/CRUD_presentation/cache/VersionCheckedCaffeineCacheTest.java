@@ -0,0 +1,58 @@
+package com.pdi_technologies.CRUD_presentation.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.CRUD_presentation.domain.TodoSnapshot;
+import com.pdi_technologies.CRUD_presentation.event.TodoChangeTracker;
+import com.pdi_technologies.CRUD_presentation.event.TodoChangedEvent;
+import com.pdi_technologies.CRUD_presentation.tenant.TenantContext;
+
+public class VersionCheckedCaffeineCacheTest {
+
+    private final TodoChangeTracker changeTracker = new TodoChangeTracker();
+    private final VersionCheckedCaffeineCache cache = new VersionCheckedCaffeineCache("todoById",
+            Caffeine.newBuilder().build(), true, changeTracker);
+    private final TodoCacheKey key = new TodoCacheKey(TenantContext.DEFAULT, 1L);
+
+    @Test
+    void missFilledWithoutAWriteInBetweenIsCached() {
+        assertThat(cache.get(key)).isNull();
+        cache.put(key, "loaded");
+
+        assertThat(cache.get(key).get()).isEqualTo("loaded");
+    }
+
+    @Test
+    void missThatRacedWithACommittedWriteIsNotCached() {
+        assertThat(cache.get(key)).isNull();
+        // the write commits and its eviction runs while the read is still on its way back
+        changeTracker.onTodoChanged(new TodoChangedEvent(null, todo(1)));
+        cache.evict(key);
+        cache.put(key, "stale");
+
+        assertThat(cache.get(key)).isNull();
+        cache.put(key, "fresh");
+        assertThat(cache.get(key).get()).isEqualTo("fresh");
+    }
+
+    @Test
+    void writesOfOtherTenantsDoNotBlockTheFill() {
+        assertThat(cache.get(key)).isNull();
+        changeTracker.onTodoChanged(new TodoChangedEvent(null, new TodoSnapshot(2L, "other", "Other", false,
+                LocalDateTime.now(), Todo.Priority.LOW, null, null, 0)));
+        cache.put(key, "loaded");
+
+        assertThat(cache.get(key).get()).isEqualTo("loaded");
+    }
+
+    private static TodoSnapshot todo(long id) {
+        return new TodoSnapshot(id, TenantContext.DEFAULT, "Todo " + id, false, LocalDateTime.now(),
+                Todo.Priority.HIGH, null, null, 0);
+    }
+}
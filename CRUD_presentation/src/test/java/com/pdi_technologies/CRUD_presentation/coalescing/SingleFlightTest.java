@@ -0,0 +1,165 @@
+package com.pdi_technologies.CRUD_presentation.coalescing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.CRUD_presentation.domain.TodoSnapshot;
+import com.pdi_technologies.CRUD_presentation.event.TodoChangeTracker;
+import com.pdi_technologies.CRUD_presentation.event.TodoChangedEvent;
+import com.pdi_technologies.CRUD_presentation.tenant.TenantContext;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class SingleFlightTest {
+
+    private final TodoChangeTracker changeTracker = new TodoChangeTracker();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight singleFlight = new SingleFlight(changeTracker, meterRegistry);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger executions = new AtomicInteger();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void identicalConcurrentCallsShareOneExecution() throws Exception {
+        Future<Object> leader = call("overdue", List.of());
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        List<Future<Object>> waiters = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            waiters.add(call("overdue", List.of()));
+        }
+        awaitCoalesced("overdue", 5);
+        Future<Object> otherArguments = call("overdue", List.of("HIGH"));
+
+        release.countDown();
+        Object result = leader.get(5, TimeUnit.SECONDS);
+        for (Future<Object> waiter : waiters) {
+            assertThat(waiter.get(5, TimeUnit.SECONDS)).isSameAs(result);
+        }
+        assertThat(otherArguments.get(5, TimeUnit.SECONDS)).isNotSameAs(result);
+        assertThat(executions).hasValue(2);
+        assertThat(count("overdue", "executed")).isEqualTo(2);
+    }
+
+    @Test
+    void aCommittedWriteStartsANewExecution() throws Exception {
+        Future<Object> leader = call("overdue", List.of());
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        changeTracker.onTodoChanged(new TodoChangedEvent(null, new TodoSnapshot(1L, TenantContext.DEFAULT,
+                "Written meanwhile", false, LocalDateTime.now(), Todo.Priority.LOW, null, null, 0)));
+        Future<Object> afterWrite = call("overdue", List.of());
+        Future<Object> otherTenant = executor.submit(() -> TenantContext.callAs("other", () -> {
+            try {
+                return singleFlight.execute("overdue", List.of(), () -> "other");
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        awaitExecutions(2); // the call after the write runs alongside the one before it
+
+        release.countDown();
+        assertThat(afterWrite.get(5, TimeUnit.SECONDS)).isNotSameAs(leader.get(5, TimeUnit.SECONDS));
+        assertThat(otherTenant.get(5, TimeUnit.SECONDS)).isEqualTo("other");
+        assertThat(executions).hasValue(2);
+        assertThat(count("overdue", "coalesced")).isZero();
+    }
+
+    @Test
+    void waitersGetTheFailureToo() throws Exception {
+        Future<Object> leader = executor.submit(() -> execute("failing", List.of(), () -> {
+            started.countDown();
+            release.await();
+            throw new IllegalStateException("database down");
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<Object> waiter = executor.submit(() -> execute("failing", List.of(), () -> "not run"));
+        awaitCoalesced("failing", 1);
+
+        release.countDown();
+        for (Future<Object> call : List.of(leader, waiter)) {
+            assertThatThrownBy(() -> call.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("database down");
+        }
+        // nothing is kept once the call is over
+        assertThat(execute("failing", List.of(), () -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    void sharedListsAreUnmodifiable() throws Exception {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", 1L);
+        Object result = execute("fields", List.of(), () -> new ArrayList<>(List.of(row)));
+
+        List<?> rows = (List<?>) result;
+        assertThat(rows).hasSize(1);
+        assertThatThrownBy(() -> rows.remove(0)).isInstanceOf(UnsupportedOperationException.class);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> shared = (Map<String, Object>) rows.get(0);
+        assertThat(shared).isEqualTo(row);
+        assertThatThrownBy(() -> shared.put("title", "changed")).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    // a call that blocks until release, returning a new object each time
+    private Future<Object> call(String operation, List<Object> arguments) {
+        return executor.submit(() -> execute(operation, arguments, () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            release.await();
+            return new Object();
+        }));
+    }
+
+    private Object execute(String operation, List<Object> arguments, SingleFlight.Call call) throws Exception {
+        try {
+            return singleFlight.execute(operation, arguments, call);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void awaitExecutions(int calls) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executions.get() < calls && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(executions).hasValue(calls);
+    }
+
+    private void awaitCoalesced(String operation, int calls) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count(operation, "coalesced") < calls && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(count(operation, "coalesced")).isEqualTo(calls);
+    }
+
+    private double count(String operation, String result) {
+        var counter = meterRegistry.find("todo.coalescing.calls")
+                .tag("operation", operation)
+                .tag("result", result)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,129 @@
+package com.pdi_technologies.CRUD_presentation.columnar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.CRUD_presentation.domain.TodoSnapshot;
+import com.pdi_technologies.CRUD_presentation.event.TodoChangedEvent;
+import com.pdi_technologies.CRUD_presentation.repository.TodoQuery;
+import com.pdi_technologies.CRUD_presentation.tenant.TenantContext;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class TodoColumnStoreTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 1, 1);
+
+    private final TodoColumnStore store = new TodoColumnStore(new SimpleMeterRegistry());
+
+    @Test
+    void filtersAndOrdersLikeTheQueries() {
+        create(todo(3, "b", "Pay rent", false, Todo.Priority.HIGH, TODAY.plusDays(2)));
+        create(todo(1, "a", "Pay invoice", true, Todo.Priority.LOW, TODAY));
+        create(todo(2, "a", "Call mom", false, Todo.Priority.URGENT, null));
+        create(todo(4, "a", "pay taxes", false, Todo.Priority.URGENT, TODAY.plusDays(1)));
+
+        assertThat(ids(store.find("a", query(null, null, null, null, "PAY"), TodoColumnStore.Order.ID, 10)))
+                .containsExactly(1L, 4L);
+        assertThat(ids(store.find("a", query(false, null, null, null, null), TodoColumnStore.Order.URGENCY, 10)))
+                .containsExactly(2L, 4L); // no due date sorts first, as NULL does
+        assertThat(ids(store.find("a", query(null, Set.of(Todo.Priority.LOW, Todo.Priority.URGENT), TODAY,
+                TODAY.plusDays(1), null), TodoColumnStore.Order.URGENCY, 10)))
+                .containsExactly(4L, 1L);
+        assertThat(ids(store.find(TenantContext.ROOT, TodoQuery.ALL, TodoColumnStore.Order.ID, 3)))
+                .containsExactly(1L, 2L, 3L);
+        assertThat(store.find("c", TodoQuery.ALL, TodoColumnStore.Order.ID, 10)).isEmpty();
+
+        Todo invoice = store.find("a", query(true, null, null, null, null), TodoColumnStore.Order.ID, 10).get(0);
+        assertThat(invoice.getTitle()).isEqualTo("Pay invoice");
+        assertThat(invoice.getTenantId()).isEqualTo("a");
+        assertThat(invoice.getDueDate()).isEqualTo(TODAY);
+        assertThat(invoice.getCreatedAt()).isEqualTo(LocalDateTime.of(2024, 12, 31, 9, 30, 15, 123_456_000));
+        assertThat(invoice.getCompletedAt()).isEqualTo(LocalDateTime.of(2025, 1, 1, 8, 0));
+        assertThat(invoice.getVersion()).isEqualTo(7);
+    }
+
+    @Test
+    void updatesAndDeletesKeepTheRowsConsistent() {
+        TodoSnapshot first = todo(1, "a", "First", false, Todo.Priority.LOW, null);
+        TodoSnapshot second = todo(2, "a", "Second", true, Todo.Priority.HIGH, null);
+        TodoSnapshot third = todo(3, "a", "Third", false, Todo.Priority.HIGH, null);
+        create(first);
+        create(second);
+        create(third);
+
+        // the last row moves into the gap, its completed bit has to move with it
+        store.apply(new TodoChangedEvent(first, null));
+        assertThat(ids(store.find("a", query(true, null, null, null, null), TodoColumnStore.Order.ID, 10)))
+                .containsExactly(2L);
+        assertThat(ids(store.find("a", query(false, null, null, null, null), TodoColumnStore.Order.ID, 10)))
+                .containsExactly(3L);
+
+        TodoSnapshot renamed = next(todo(3, "a", "Renamed", true, Todo.Priority.HIGH, null));
+        store.apply(new TodoChangedEvent(third, renamed));
+        assertThat(store.find("a", query(null, null, null, null, "third"), TodoColumnStore.Order.ID, 10)).isEmpty();
+        assertThat(ids(store.find("a", query(true, Set.of(Todo.Priority.HIGH), null, null, null),
+                TodoColumnStore.Order.ID, 10)))
+                .containsExactly(2L, 3L);
+    }
+
+    @Test
+    void staleEventsDoNotOverwriteNewerRows() {
+        TodoSnapshot stored = todo(1, "a", "Stored", false, Todo.Priority.LOW, null);
+        TodoSnapshot completed = next(todo(1, "a", "Stored", true, Todo.Priority.LOW, null));
+        create(stored);
+        store.apply(new TodoChangedEvent(stored, completed));
+
+        // the event of the earlier commit arrives last, and the initial load repeats a version
+        store.apply(new TodoChangedEvent(null, stored));
+        store.apply(new TodoChangedEvent(stored, todo(1, "a", "Renamed", false, Todo.Priority.LOW, null)));
+
+        assertThat(store.find("a", TodoQuery.ALL, TodoColumnStore.Order.ID, 10)).singleElement().satisfies(todo -> {
+            assertThat(todo.getTitle()).isEqualTo("Stored");
+            assertThat(todo.isCompleted()).isTrue();
+            assertThat(todo.getVersion()).isEqualTo(8);
+        });
+    }
+
+    @Test
+    void updateArrivingAfterTheDeleteDoesNotBringTheRowBack() {
+        TodoSnapshot stored = todo(1, "a", "Stored", false, Todo.Priority.LOW, null);
+        TodoSnapshot renamed = next(todo(1, "a", "Renamed", false, Todo.Priority.LOW, null));
+        create(stored);
+        store.apply(new TodoChangedEvent(renamed, null));
+        store.apply(new TodoChangedEvent(stored, renamed));
+
+        assertThat(store.find("a", TodoQuery.ALL, TodoColumnStore.Order.ID, 10)).isEmpty();
+    }
+
+    private void create(TodoSnapshot todo) {
+        store.apply(new TodoChangedEvent(null, todo));
+    }
+
+    private static TodoSnapshot todo(long id, String tenant, String title, boolean completed, Todo.Priority priority,
+            LocalDate dueDate) {
+        return new TodoSnapshot(id, tenant, title, completed, LocalDateTime.of(2024, 12, 31, 9, 30, 15, 123_456_000),
+                priority, dueDate, completed ? LocalDateTime.of(2025, 1, 1, 8, 0) : null, 7);
+    }
+
+    private static TodoSnapshot next(TodoSnapshot todo) {
+        return new TodoSnapshot(todo.id(), todo.tenantId(), todo.title(), todo.completed(), todo.createdAt(),
+                todo.priority(), todo.dueDate(), todo.completedAt(), todo.version() + 1);
+    }
+
+    private static TodoQuery query(Boolean completed, Set<Todo.Priority> priority, LocalDate dueFrom, LocalDate dueTo,
+            String title) {
+        return new TodoQuery(completed, priority, dueFrom, dueTo, title);
+    }
+
+    private static List<Long> ids(List<Todo> todos) {
+        return todos.stream().map(Todo::getId).toList();
+    }
+}
@@ -0,0 +1,104 @@
+package com.pdi_technologies.CRUD_presentation.contoller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.Order;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.CRUD_presentation.event.TodoChangeTracker;
+import com.pdi_technologies.CRUD_presentation.event.TodoChangedEvent;
+import com.pdi_technologies.CRUD_presentation.repository.TodoRepository;
+import com.pdi_technologies.CRUD_presentation.tenant.TenantContext;
+
+// A read that lands after a commit but before the change counter moves: the read models must
+// already have the change, or its stale body is cached and revalidated under the new ETag.
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ChangeTrackingOrderTest {
+
+    @TestConfiguration
+    static class GapReadConfig {
+
+        @Bean
+        GapRead gapRead() {
+            return new GapRead();
+        }
+    }
+
+    // runs the armed read from another thread, between the read models and the change counter
+    static class GapRead {
+
+        private final ExecutorService executor = Executors.newSingleThreadExecutor();
+        volatile Callable<MvcResult> read;
+        volatile MvcResult result;
+
+        @TransactionalEventListener(fallbackExecution = true)
+        @Order(TodoChangeTracker.ORDER - 1)
+        public void onTodoChanged(TodoChangedEvent event) throws Exception {
+            Callable<MvcResult> armed = read;
+            read = null;
+            if (armed != null) {
+                result = executor.submit(armed).get(5, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private GapRead gapRead;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.runAs(TenantContext.ROOT, () -> todoRepository.deleteAll());
+    }
+
+    @AfterEach
+    void disarm() {
+        gapRead.read = null;
+    }
+
+    @Test
+    void readBetweenCommitAndCounterBumpIsNotStale() throws Exception {
+        gapRead.read = () -> mockMvc.perform(get("/api/todos/overdue")).andReturn();
+
+        Todo todo = new Todo();
+        todo.setTitle("Overdue in the gap");
+        todo.setDueDate(LocalDate.now().minusDays(1));
+        todoRepository.save(todo);
+
+        MvcResult gap = gapRead.result;
+        assertThat(gap).isNotNull();
+        assertThat(gap.getResponse().getContentAsString()).contains("Overdue in the gap");
+
+        // the tag the gap read handed out does not revalidate, and the cached list has the todo
+        mockMvc.perform(get("/api/todos/overdue").header("If-None-Match", gap.getResponse().getHeader("ETag")))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[*].title", hasItem("Overdue in the gap")));
+    }
+}
@@ -0,0 +1,9 @@
+package com.pdi_technologies.CRUD_presentation.contoller;
+
+import org.springframework.test.context.TestPropertySource;
+
+// every controller test again with the filters answered by the columnar read model, which has
+// to give the same results as the database
+@TestPropertySource(properties = "todo.columnar.enabled=true")
+class TodoControllerColumnarTest extends TodoControllerMockMvcTest {
+}
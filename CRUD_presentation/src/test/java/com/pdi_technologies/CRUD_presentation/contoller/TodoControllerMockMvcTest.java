@@ -6,18 +6,43 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pdi_technologies.CRUD_presentation.archive.TodoArchiver;
+import com.pdi_technologies.CRUD_presentation.config.BinaryFormats;
 import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.CRUD_presentation.duedate.TodoDueDateIndex;
+import com.pdi_technologies.CRUD_presentation.event.TodoBecameOverdueEvent;
+import com.pdi_technologies.CRUD_presentation.event.TodoChangedEvent;
+import com.pdi_technologies.CRUD_presentation.repository.ArchivedTodoRepository;
 import com.pdi_technologies.CRUD_presentation.repository.TodoRepository;
+import com.pdi_technologies.CRUD_presentation.tenant.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@RecordApplicationEvents
 public class TodoControllerMockMvcTest {
     
     @Autowired
@@ -29,9 +54,27 @@ public class TodoControllerMockMvcTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private TodoDueDateIndex dueDateIndex;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    @Autowired
+    private ArchivedTodoRepository archivedTodoRepository;
+
+    @Autowired
+    private TodoArchiver todoArchiver;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @BeforeEach
     void setUp() {
-        todoRepository.deleteAll(); //clear the database before each test
+        TenantContext.runAs(TenantContext.ROOT, () -> { //clear the database, every tenant, before each test
+            todoRepository.deleteAll();
+            archivedTodoRepository.deleteAll();
+        });
     }
 
     @Test
@@ -52,6 +95,60 @@ public class TodoControllerMockMvcTest {
         .andExpect(jsonPath("$.completed").value(false));
     }
 
+    @Test
+    void testBatchCreateReportsPerItemResults() throws Exception {
+        Todo first = new Todo();
+        first.setTitle("Batch One");
+        Todo untitled = new Todo();
+        Todo second = new Todo();
+        second.setTitle("Batch Two");
+
+        mockMvc.perform(post("/api/todos/batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(List.of(first, untitled, second))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(3)))
+        .andExpect(jsonPath("$[0].status").value("CREATED"))
+        .andExpect(jsonPath("$[0].id").exists())
+        .andExpect(jsonPath("$[1].status").value("INVALID"))
+        .andExpect(jsonPath("$[2].status").value("CREATED"));
+
+        mockMvc.perform(get("/api/todos"))
+        .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    void testBatchUpdateAndDelete() throws Exception {
+        Todo todo = new Todo();
+        todo.setTitle("Batch Update");
+        Todo savedTodo = todoRepository.save(todo);
+
+        savedTodo.setCompleted(true);
+        Todo missing = new Todo();
+        missing.setId(savedTodo.getId() + 1000);
+        missing.setTitle("Missing");
+
+        mockMvc.perform(put("/api/todos/batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(List.of(savedTodo, missing))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].status").value("UPDATED"))
+        .andExpect(jsonPath("$[1].status").value("NOT_FOUND"));
+
+        mockMvc.perform(get("/api/todos/{id}", savedTodo.getId()))
+        .andExpect(jsonPath("$.completed").value(true));
+
+        mockMvc.perform(delete("/api/todos/batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(List.of(savedTodo.getId(), missing.getId()))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].status").value("DELETED"))
+        .andExpect(jsonPath("$[1].status").value("NOT_FOUND"));
+
+        mockMvc.perform(get("/api/todos"))
+        .andExpect(jsonPath("$", hasSize(0)));
+    }
+
     @Test
     void testGetAllTodos() throws Exception {
         //create a todo
@@ -66,6 +163,219 @@ public class TodoControllerMockMvcTest {
         .andExpect(jsonPath("$[0].completed").value(false));
     }
 
+    @Test
+    void testGetAllTodosKeysetPagination() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            Todo todo = new Todo();
+            todo.setTitle("Page Todo " + i);
+            todoRepository.save(todo);
+        }
+
+        MvcResult firstPage = mockMvc.perform(get("/api/todos").param("size", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[0].title").value("Page Todo 1"))
+        .andExpect(header().exists("X-Next-Cursor"))
+        .andReturn();
+
+        mockMvc.perform(get("/api/todos")
+        .param("size", "2")
+        .param("cursor", firstPage.getResponse().getHeader("X-Next-Cursor")))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].title").value("Page Todo 3"))
+        .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void testGetAllTodosRejectsInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/todos").param("cursor", "not-a-cursor"))
+        .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testStreamTodos() throws Exception {
+        Todo todo = new Todo();
+        todo.setTitle("Stream Test Todo");
+        todoRepository.save(todo);
+
+        MvcResult result = mockMvc.perform(get("/api/todos/stream"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("application/x-ndjson"))
+        .andExpect(content().string(containsString("\"title\":\"Stream Test Todo\"")));
+    }
+
+    @Test
+    void testExportAndImportRoundTrip() throws Exception {
+        Todo done = new Todo();
+        done.setTitle("Export, \"quoted\"");
+        done.setCompleted(true);
+        done.setCompletedAt(LocalDateTime.of(2024, 3, 4, 5, 6));
+        done.setPriority(Todo.Priority.HIGH);
+        done.setDueDate(LocalDate.of(2024, 3, 1));
+        todoRepository.save(done);
+
+        Todo open = new Todo();
+        open.setTitle("Export Open");
+        todoRepository.save(open);
+
+        MvcResult csv = mockMvc.perform(get("/api/todos/export").param("format", "csv"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+        String exported = mockMvc.perform(asyncDispatch(csv))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("text/csv"))
+        .andReturn().getResponse().getContentAsString();
+        assertThat(exported).startsWith("id,title,completed,priority,dueDate,createdAt,completedAt,version\n");
+        assertThat(exported.lines()).hasSize(3);
+
+        TenantContext.runAs(TenantContext.ROOT, todoRepository::deleteAll);
+
+        mockMvc.perform(post("/api/todos/import")
+        .contentType("text/csv")
+        .content(exported + ",,false,LOW,,,,\n"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.imported").value(2))
+        .andExpect(jsonPath("$.rejected").value(1))
+        .andExpect(jsonPath("$.errors[0]").value(containsString("title is required")));
+
+        mockMvc.perform(get("/api/todos/completed").param("completed", "true"))
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].title").value("Export, \"quoted\""))
+        .andExpect(jsonPath("$[0].priority").value("HIGH"))
+        .andExpect(jsonPath("$[0].dueDate").value("2024-03-01"))
+        .andExpect(jsonPath("$[0].completedAt").value("2024-03-04T05:06:00"));
+
+        mockMvc.perform(post("/api/todos/import")
+        .contentType("application/x-ndjson")
+        .content("{\"title\":\"From NDJSON\",\"priority\":\"URGENT\"}\n{\"title\":\"Second\"}\n"))
+        .andExpect(jsonPath("$.imported").value(2));
+        mockMvc.perform(get("/api/todos/priority").param("priority", "URGENT"))
+        .andExpect(jsonPath("$", hasSize(1)));
+
+        mockMvc.perform(post("/api/todos/import")
+        .contentType("application/x-ndjson")
+        .content("{\"title\":\"Before The Error\"}\n{not json\n"))
+        .andExpect(status().isBadRequest());
+        assertThat(todoRepository.count()).isEqualTo(5);
+    }
+
+    @Test
+    void testGetAllTodosAsCbor() throws Exception {
+        Todo todo = new Todo();
+        todo.setTitle("Cbor Test");
+        todo.setPriority(Todo.Priority.URGENT);
+        todo.setDueDate(LocalDate.of(2025, 1, 2));
+        todoRepository.save(todo);
+
+        MvcResult result = mockMvc.perform(get("/api/todos").accept(MediaType.APPLICATION_CBOR))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+        .andReturn();
+
+        JsonNode todos = BinaryFormats.cborMapper().readTree(result.getResponse().getContentAsByteArray());
+        assertThat(todos.get(0).get("title").asText()).isEqualTo("Cbor Test");
+        assertThat(todos.get(0).get("priority").asInt()).isEqualTo(Todo.Priority.URGENT.ordinal());
+        assertThat(todos.get(0).get("dueDate").asLong()).isEqualTo(LocalDate.of(2025, 1, 2).toEpochDay());
+
+        Todo[] decoded = BinaryFormats.cborMapper().readValue(result.getResponse().getContentAsByteArray(), Todo[].class);
+        assertThat(decoded[0].getPriority()).isEqualTo(Todo.Priority.URGENT);
+        assertThat(decoded[0].getDueDate()).isEqualTo(LocalDate.of(2025, 1, 2));
+
+        // the JSON and CBOR representations are told apart by their ETags
+        String jsonEtag = mockMvc.perform(get("/api/todos")).andReturn().getResponse().getHeader("ETag");
+        assertThat(result.getResponse().getHeader("ETag")).isNotEqualTo(jsonEtag);
+        assertThat(result.getResponse().getHeaders("Vary")).contains("Accept");
+
+        // and the tag follows the representation negotiation actually picks
+        mockMvc.perform(get("/api/todos").header("Accept", "application/cbor;q=0, application/json"))
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+        .andExpect(header().string("ETag", jsonEtag));
+        mockMvc.perform(get("/api/todos").header("Accept", "application/json;q=0.5, application/cbor"))
+        .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+        .andExpect(header().string("ETag", result.getResponse().getHeader("ETag")));
+        mockMvc.perform(get("/api/todos").header("Accept", "*/*"))
+        .andExpect(header().string("ETag", jsonEtag));
+    }
+
+    @Test
+    void testSqlCountHeader() throws Exception {
+        Todo todo = new Todo();
+        todo.setTitle("Sql Count Test");
+        todoRepository.save(todo);
+
+        mockMvc.perform(get("/api/todos"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("X-SQL-Count", "1"));
+    }
+
+    @Test
+    void testFrontendOriginMaySendCookies() throws Exception {
+        // the read-your-writes cookie only comes back from the React client with credentials
+        mockMvc.perform(options("/api/todos")
+        .header("Origin", "http://localhost:5173")
+        .header("Access-Control-Request-Method", "POST"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Access-Control-Allow-Origin", "http://localhost:5173"))
+        .andExpect(header().string("Access-Control-Allow-Credentials", "true"));
+    }
+
+    @Test
+    void testChangeFeedDeliversAndResumes() throws Exception {
+        MvcResult live = mockMvc.perform(get("/api/todos/changes"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+        Todo first = new Todo();
+        first.setTitle("Feed First");
+        todoRepository.save(first);
+
+        String events = awaitContent(live, "Feed First");
+        assertThat(events).contains("event:CREATED");
+        Matcher lastId = Pattern.compile("id:(\\d+)").matcher(events);
+        assertThat(lastId.find()).isTrue();
+
+        Todo second = new Todo();
+        second.setTitle("Feed Second");
+        todoRepository.save(second);
+
+        MvcResult resumed = mockMvc.perform(get("/api/todos/changes")
+        .header("Last-Event-ID", lastId.group(1)))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+        assertThat(awaitContent(resumed, "Feed Second")).doesNotContain("Feed First");
+    }
+
+    @Test
+    void testChangeFeedResetsIdsItDidNotHandOut() throws Exception {
+        // an id of a run before the restart, and one this run hasn't reached
+        for (String lastEventId : List.of("500", Long.toString(Long.MAX_VALUE - 1))) {
+            MvcResult resumed = mockMvc.perform(get("/api/todos/changes")
+            .header("Last-Event-ID", lastEventId))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+            assertThat(awaitContent(resumed, "reload the list")).contains("event:reset");
+        }
+    }
+
+    // SSE events are written from another thread as they happen
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        assertThat(content).contains(expected);
+        return content;
+    }
+
     @Test
     void testGetTodoById() throws Exception {
         Todo todo = new Todo();
@@ -98,6 +408,177 @@ public class TodoControllerMockMvcTest {
         
     }
 
+    @Test
+    void testGetTodoByIdConditionalGet() throws Exception {
+        Todo todo = new Todo();
+        todo.setTitle("ETag Test");
+        Todo savedTodo = todoRepository.save(todo);
+
+        String etag = mockMvc.perform(get("/api/todos/{id}", savedTodo.getId()))
+        .andExpect(status().isOk())
+        .andExpect(header().exists("ETag"))
+        .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/todos/{id}", savedTodo.getId()).header("If-None-Match", etag))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+
+        savedTodo.setCompleted(true);
+        todoRepository.save(savedTodo);
+
+        mockMvc.perform(get("/api/todos/{id}", savedTodo.getId()).header("If-None-Match", etag))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.completed").value(true));
+    }
+
+    @Test
+    void testListConditionalGetFollowsTableChanges() throws Exception {
+        String etag = mockMvc.perform(get("/api/todos/priority").param("priority", "LOW"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/todos/priority").param("priority", "LOW").header("If-None-Match", etag))
+        .andExpect(status().isNotModified());
+
+        Todo todo = new Todo();
+        todo.setTitle("List ETag Test");
+        todo.setPriority(Todo.Priority.LOW);
+        todoRepository.save(todo);
+
+        mockMvc.perform(get("/api/todos/priority").param("priority", "LOW").header("If-None-Match", etag))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].title").value("List ETag Test"));
+    }
+
+    @Test
+    void testRecentChangesAreNotValidatedByDateAlone() throws Exception {
+        Todo todo = new Todo();
+        todo.setTitle("Changed This Second");
+        todoRepository.save(todo);
+
+        // another write could still land in the same second, only the ETag can tell
+        mockMvc.perform(get("/api/todos/completed").param("completed", "false")
+        .header("If-Modified-Since", DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().plusHours(1))))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist("Last-Modified"))
+        .andExpect(header().exists("ETag"));
+    }
+
+    @Test
+    void testUpdateTodoWithIfMatch() throws Exception {
+        Todo todo = new Todo();
+        todo.setTitle("If-Match Test");
+        Todo savedTodo = todoRepository.save(todo);
+
+        String etag = mockMvc.perform(get("/api/todos/{id}", savedTodo.getId()))
+        .andReturn().getResponse().getHeader("ETag");
+
+        savedTodo.setTitle("If-Match Test Updated");
+        String newEtag = mockMvc.perform(put("/api/todos/{id}", savedTodo.getId())
+        .header("If-Match", etag)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(savedTodo)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.title").value("If-Match Test Updated"))
+        .andReturn().getResponse().getHeader("ETag");
+
+        // a second writer still holding the old ETag loses
+        savedTodo.setTitle("Lost Update");
+        mockMvc.perform(put("/api/todos/{id}", savedTodo.getId())
+        .header("If-Match", etag)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(savedTodo)))
+        .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/api/todos/{id}", savedTodo.getId()))
+        .andExpect(header().string("ETag", newEtag))
+        .andExpect(jsonPath("$.title").value("If-Match Test Updated"));
+    }
+
+    @Test
+    void testPatchTodoWritesOnlyThePatchedFields() throws Exception {
+        Todo todo = new Todo();
+        todo.setTitle("Patch Test");
+        todo.setPriority(Todo.Priority.HIGH);
+        todo.setDueDate(LocalDate.of(2025, 12, 31));
+        Todo savedTodo = todoRepository.save(todo);
+
+        // one SELECT by id and one UPDATE
+        mockMvc.perform(patch("/api/todos/{id}", savedTodo.getId())
+        .contentType("application/merge-patch+json")
+        .content("{\"completed\": true, \"dueDate\": null}"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("X-SQL-Count", "2"))
+        .andExpect(jsonPath("$.completed").value(true))
+        .andExpect(jsonPath("$.dueDate").doesNotExist())
+        .andExpect(jsonPath("$.title").value("Patch Test"))
+        .andExpect(jsonPath("$.priority").value("HIGH"))
+        .andExpect(jsonPath("$.version").value(savedTodo.getVersion() + 1));
+
+        mockMvc.perform(patch("/api/todos/{id}", savedTodo.getId())
+        .contentType("application/merge-patch+json")
+        .content("{\"title\": null}"))
+        .andExpect(status().isBadRequest());
+
+        mockMvc.perform(patch("/api/todos/{id}", savedTodo.getId())
+        .contentType("application/merge-patch+json")
+        .content("{\"id\": 42}"))
+        .andExpect(status().isBadRequest());
+
+        mockMvc.perform(patch("/api/todos/{id}", savedTodo.getId() + 1000)
+        .contentType("application/merge-patch+json")
+        .content("{\"completed\": true}"))
+        .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testBulkPatchUpdatesMatchingTodos() throws Exception {
+        for (Todo.Priority priority : List.of(Todo.Priority.HIGH, Todo.Priority.HIGH, Todo.Priority.LOW)) {
+            Todo todo = new Todo();
+            todo.setTitle("Bulk Patch " + priority);
+            todo.setPriority(priority);
+            todoRepository.save(todo);
+        }
+        // warm the cache so the test also sees it being invalidated
+        mockMvc.perform(get("/api/todos/completed").param("completed", "true"))
+        .andExpect(jsonPath("$", hasSize(0)));
+
+        mockMvc.perform(patch("/api/todos").param("priority", "HIGH")
+        .contentType("application/merge-patch+json")
+        .content("{\"completed\": true}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.updated").value(2));
+
+        mockMvc.perform(get("/api/todos/completed").param("completed", "true"))
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[0].priority").value("HIGH"))
+        .andExpect(jsonPath("$[0].version").value(1));
+
+        mockMvc.perform(get("/api/todos/stats"))
+        .andExpect(jsonPath("$.completed").value(2));
+
+        // the events carry the completedAt the database got
+        Map<Long, LocalDateTime> stored = new HashMap<>();
+        todoRepository.findAll().stream().filter(Todo::isCompleted)
+        .forEach(todo -> stored.put(todo.getId(), todo.getCompletedAt()));
+        Map<Long, LocalDateTime> published = new HashMap<>();
+        applicationEvents.stream(TodoChangedEvent.class)
+        .filter(event -> event.current() != null && event.current().completed())
+        .forEach(event -> published.put(event.id(), event.current().completedAt()));
+        assertThat(published).hasSize(2).isEqualTo(stored);
+
+        // todos that already match the patch are left alone
+        mockMvc.perform(patch("/api/todos").param("priority", "HIGH")
+        .contentType("application/merge-patch+json")
+        .content("{\"completed\": true}"))
+        .andExpect(jsonPath("$.updated").value(0));
+
+        mockMvc.perform(patch("/api/todos")
+        .contentType("application/merge-patch+json")
+        .content("{\"completed\": true}"))
+        .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testDeleteTodo() throws Exception {
         Todo todo = new Todo();
@@ -122,6 +603,50 @@ public class TodoControllerMockMvcTest {
         .andExpect(jsonPath("$[0].title").value("Filter By Title Test"));
     }
 
+    @Test
+    void testSearchTodosRanksByMatchedWords() throws Exception {
+        Todo milk = new Todo();
+        milk.setTitle("Buy milk");
+        todoRepository.save(milk);
+
+        Todo milkAndBread = new Todo();
+        milkAndBread.setTitle("Buy milk and bread");
+        todoRepository.save(milkAndBread);
+
+        Todo unrelated = new Todo();
+        unrelated.setTitle("Walk the dog");
+        todoRepository.save(unrelated);
+
+        mockMvc.perform(get("/api/todos/search")
+        .param("q", "mil bre"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[0].title").value("Buy milk and bread"))
+        .andExpect(jsonPath("$[1].title").value("Buy milk"));
+    }
+
+    @Test
+    void testSearchIndexFollowsUpdatesAndDeletes() throws Exception {
+        Todo todo = new Todo();
+        todo.setTitle("Renew passport");
+        Todo savedTodo = todoRepository.save(todo);
+
+        savedTodo.setTitle("Renew license");
+        mockMvc.perform(put("/api/todos/{id}", savedTodo.getId())
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(savedTodo)))
+        .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/todos/search").param("q", "passport"))
+        .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(get("/api/todos/search").param("q", "license"))
+        .andExpect(jsonPath("$[0].title").value("Renew license"));
+
+        mockMvc.perform(delete("/api/todos/{id}", savedTodo.getId()));
+        mockMvc.perform(get("/api/todos/search").param("q", "license"))
+        .andExpect(jsonPath("$", hasSize(0)));
+    }
+
     @Test
     void testFilterByCompleted() throws Exception {
         Todo todo = new Todo();
@@ -151,6 +676,30 @@ public class TodoControllerMockMvcTest {
         .andExpect(jsonPath("$[0].title").value("High Priority Test"));
     }
 
+    @Test
+    void testCachedFiltersSeeLaterWrites() throws Exception {
+        mockMvc.perform(get("/api/todos/priority").param("priority", "HIGH"))
+        .andExpect(jsonPath("$", hasSize(0)));
+
+        Todo todo = new Todo();
+        todo.setTitle("Cached Priority Test");
+        todo.setPriority(Todo.Priority.HIGH);
+        Todo savedTodo = todoRepository.save(todo);
+
+        mockMvc.perform(get("/api/todos/priority").param("priority", "HIGH"))
+        .andExpect(jsonPath("$", hasSize(1)));
+        mockMvc.perform(get("/api/todos/{id}", savedTodo.getId()))
+        .andExpect(jsonPath("$.priority").value("HIGH"));
+
+        savedTodo.setPriority(Todo.Priority.LOW);
+        todoRepository.save(savedTodo);
+
+        mockMvc.perform(get("/api/todos/priority").param("priority", "HIGH"))
+        .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(get("/api/todos/{id}", savedTodo.getId()))
+        .andExpect(jsonPath("$.priority").value("LOW"));
+    }
+
     @Test
     void testFilterByPriorityAndCompleted() throws Exception {
         Todo todo = new Todo();
@@ -246,6 +795,199 @@ public class TodoControllerMockMvcTest {
         .andExpect(jsonPath("$[0].completed").value(false));
     }
 
+    @Test
+    void testOverdueTodosMostUrgentFirst() throws Exception {
+        Todo low = new Todo();
+        low.setTitle("Overdue Low");
+        low.setPriority(Todo.Priority.LOW);
+        low.setDueDate(LocalDate.now().minusDays(3));
+        todoRepository.save(low);
+
+        Todo urgent = new Todo();
+        urgent.setTitle("Overdue Urgent");
+        urgent.setPriority(Todo.Priority.URGENT);
+        urgent.setDueDate(LocalDate.now().minusDays(1));
+        todoRepository.save(urgent);
+
+        Todo done = new Todo();
+        done.setTitle("Overdue Done");
+        done.setCompleted(true);
+        done.setDueDate(LocalDate.now().minusDays(1));
+        todoRepository.save(done);
+
+        mockMvc.perform(get("/api/todos/overdue"))
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[0].title").value("Overdue Urgent"))
+        .andExpect(jsonPath("$[1].title").value("Overdue Low"));
+
+        // completing a todo takes it off the overdue list but keeps it in the date lookups
+        urgent.setCompleted(true);
+        todoRepository.save(urgent);
+
+        mockMvc.perform(get("/api/todos/overdue"))
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].title").value("Overdue Low"));
+
+        mockMvc.perform(get("/api/todos/due-before").param("date", LocalDate.now().toString()))
+        .andExpect(jsonPath("$", hasSize(3)));
+    }
+
+    @Test
+    void testMidnightRolloverPublishesBecameOverdue() throws Exception {
+        Todo tomorrow = new Todo();
+        tomorrow.setTitle("Due Tomorrow");
+        tomorrow.setDueDate(LocalDate.now().plusDays(1));
+        Todo saved = todoRepository.save(tomorrow);
+
+        Todo later = new Todo();
+        later.setTitle("Due Later");
+        later.setDueDate(LocalDate.now().plusDays(5));
+        todoRepository.save(later);
+
+        dueDateIndex.advanceTo(LocalDate.now().plusDays(1));
+
+        assertThat(applicationEvents.stream(TodoBecameOverdueEvent.class))
+        .containsExactly(new TodoBecameOverdueEvent(saved.getId(), TenantContext.DEFAULT, Todo.Priority.MEDIUM, LocalDate.now().plusDays(1)));
+    }
+
+    @Test
+    void testGetStats() throws Exception {
+        Todo overdue = new Todo();
+        overdue.setTitle("Stats Overdue");
+        overdue.setPriority(Todo.Priority.HIGH);
+        overdue.setDueDate(LocalDate.now().minusDays(2));
+        todoRepository.save(overdue);
+
+        Todo dueToday = new Todo();
+        dueToday.setTitle("Stats Due Today");
+        dueToday.setPriority(Todo.Priority.HIGH);
+        dueToday.setDueDate(LocalDate.now());
+        todoRepository.save(dueToday);
+
+        Todo done = new Todo();
+        done.setTitle("Stats Done");
+        done.setCompleted(true);
+        done.setPriority(Todo.Priority.LOW);
+        done.setDueDate(LocalDate.now().minusDays(2));
+        Todo savedDone = todoRepository.save(done);
+
+        mockMvc.perform(get("/api/todos/stats"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.total").value(3))
+        .andExpect(jsonPath("$.completed").value(1))
+        .andExpect(jsonPath("$.open").value(2))
+        .andExpect(jsonPath("$.overdue").value(2))
+        .andExpect(jsonPath("$.dueToday").value(1))
+        .andExpect(jsonPath("$.byPriority.HIGH.open").value(2))
+        .andExpect(jsonPath("$.byPriority.LOW.completed").value(1));
+
+        // reopening a past-due todo makes it overdue
+        savedDone.setCompleted(false);
+        todoRepository.save(savedDone);
+
+        mockMvc.perform(get("/api/todos/stats"))
+        .andExpect(jsonPath("$.completed").value(0))
+        .andExpect(jsonPath("$.overdue").value(3))
+        .andExpect(jsonPath("$.byPriority.LOW.open").value(1));
+    }
+
+    @Test
+    void testArchivedTodosOnlyShowUpInHistory() throws Exception {
+        Todo old = new Todo();
+        old.setTitle("Done Long Ago");
+        old.setCompleted(true);
+        old.setCompletedAt(LocalDateTime.now().minusDays(40));
+        todoRepository.save(old);
+
+        Todo recent = new Todo();
+        recent.setTitle("Done Yesterday");
+        recent.setCompleted(true);
+        todoRepository.save(recent);
+
+        Todo open = new Todo();
+        open.setTitle("Still Open");
+        todoRepository.save(open);
+
+        assertThat(todoArchiver.archiveCompletedBefore(LocalDateTime.now().minusDays(30))).isEqualTo(1);
+
+        mockMvc.perform(get("/api/todos/completed").param("completed", "true"))
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].title").value("Done Yesterday"));
+
+        mockMvc.perform(get("/api/todos/completed").param("completed", "true").param("includeArchived", "true"))
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[0].title").value("Done Yesterday"))
+        .andExpect(jsonPath("$[1].title").value("Done Long Ago"))
+        .andExpect(jsonPath("$[1].completedAt").exists());
+        // a limit below the archive's size still has the todos that aren't archived yet
+        mockMvc.perform(get("/api/todos/completed").param("completed", "true").param("includeArchived", "true")
+        .param("limit", "1"))
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].title").value("Done Yesterday"));
+
+        mockMvc.perform(get("/api/todos/stats"))
+        .andExpect(jsonPath("$.total").value(2));
+    }
+
+    @Test
+    void testCompletingStampsCompletedAt() throws Exception {
+        Todo todo = new Todo();
+        todo.setTitle("Stamp Me");
+        Todo saved = todoRepository.save(todo);
+
+        mockMvc.perform(patch("/api/todos/{id}", saved.getId())
+        .contentType("application/merge-patch+json")
+        .content("{\"completed\": true}"))
+        .andExpect(jsonPath("$.completedAt").exists());
+
+        // bulk reopen clears it again
+        mockMvc.perform(patch("/api/todos").param("completed", "true")
+        .contentType("application/merge-patch+json")
+        .content("{\"completed\": false}"))
+        .andExpect(jsonPath("$.updated").value(1));
+        assertThat(todoRepository.findById(saved.getId())).get().extracting(Todo::getCompletedAt).isNull();
+    }
+
+    @Test
+    void testTenantsOnlySeeTheirOwnTodos() throws Exception {
+        Todo todo = new Todo();
+        todo.setTitle("Acme Secret Plan");
+        todo.setDueDate(LocalDate.now().minusDays(1));
+
+        MvcResult created = mockMvc.perform(post("/api/todos")
+        .header("X-Tenant-ID", "acme")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(todo)))
+        .andExpect(status().isOk())
+        .andReturn();
+        long id = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asLong();
+
+        mockMvc.perform(get("/api/todos").header("X-Tenant-ID", "acme"))
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].title").value("Acme Secret Plan"));
+        mockMvc.perform(get("/api/todos/search").param("q", "secret").header("X-Tenant-ID", "acme"))
+        .andExpect(jsonPath("$", hasSize(1)));
+
+        // the default tenant sees none of it
+        mockMvc.perform(get("/api/todos"))
+        .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(get("/api/todos/{id}", id))
+        .andExpect(content().string(""));
+        mockMvc.perform(get("/api/todos/search").param("q", "secret"))
+        .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(get("/api/todos/overdue"))
+        .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(get("/api/todos/stats"))
+        .andExpect(jsonPath("$.total").value(0));
+        mockMvc.perform(delete("/api/todos/{id}", id));
+        mockMvc.perform(get("/api/todos/stats").header("X-Tenant-ID", "acme"))
+        .andExpect(jsonPath("$.total").value(1))
+        .andExpect(jsonPath("$.overdue").value(1));
+
+        mockMvc.perform(get("/api/todos").header("X-Tenant-ID", "not a tenant!"))
+        .andExpect(status().isBadRequest());
+    }
+
     // Combined filter tests
     @Test
     void testFilterByPriorityAndDueDate() throws Exception {
@@ -266,6 +1008,42 @@ public class TodoControllerMockMvcTest {
         .andExpect(jsonPath("$[0].title").value("Priority Due Date Test"));
     }
 
+    @Test
+    void testQueryTodosCombinesFilters() throws Exception {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+
+        Todo match = new Todo();
+        match.setTitle("Query Match");
+        match.setCompleted(false);
+        match.setPriority(Todo.Priority.HIGH);
+        match.setDueDate(tomorrow);
+        todoRepository.save(match);
+
+        Todo wrongPriority = new Todo();
+        wrongPriority.setTitle("Query Wrong Priority");
+        wrongPriority.setCompleted(false);
+        wrongPriority.setPriority(Todo.Priority.LOW);
+        wrongPriority.setDueDate(tomorrow);
+        todoRepository.save(wrongPriority);
+
+        Todo tooLate = new Todo();
+        tooLate.setTitle("Query Too Late");
+        tooLate.setCompleted(false);
+        tooLate.setPriority(Todo.Priority.URGENT);
+        tooLate.setDueDate(tomorrow.plusDays(10));
+        todoRepository.save(tooLate);
+
+        mockMvc.perform(get("/api/todos/query")
+        .param("completed", "false")
+        .param("priority", "HIGH", "URGENT")
+        .param("dueFrom", LocalDate.now().toString())
+        .param("dueTo", tomorrow.plusDays(1).toString())
+        .param("title", "query"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].title").value("Query Match"));
+    }
+
     @Test
     void testGetTodosSortedByPriorityAndDueDate() throws Exception {
         // Create todos with different priorities and due dates
@@ -297,6 +1075,64 @@ public class TodoControllerMockMvcTest {
         .andExpect(jsonPath("$[2].priority").value("LOW"));
     }
 
+    @Test
+    void testFieldsSelectsOnlyTheRequestedFields() throws Exception {
+        Todo urgent = new Todo();
+        urgent.setTitle("Fields Urgent");
+        urgent.setPriority(Todo.Priority.URGENT);
+        urgent.setDueDate(LocalDate.now().plusDays(1));
+        todoRepository.save(urgent);
+
+        Todo low = new Todo();
+        low.setTitle("Fields Low");
+        low.setPriority(Todo.Priority.LOW);
+        todoRepository.save(low);
+
+        // projected in the query, id is always included and the cursor still works
+        mockMvc.perform(get("/api/todos").param("fields", "title").param("size", "1"))
+        .andExpect(status().isOk())
+        .andExpect(header().exists("X-Next-Cursor"))
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].id").value(urgent.getId()))
+        .andExpect(jsonPath("$[0].title").value("Fields Urgent"))
+        .andExpect(jsonPath("$[0].completed").doesNotExist())
+        .andExpect(jsonPath("$[0].priority").doesNotExist());
+
+        mockMvc.perform(get("/api/todos/sorted").param("fields", "priority,dueDate"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].priority").value("URGENT"))
+        .andExpect(jsonPath("$[0].dueDate").value(LocalDate.now().plusDays(1).toString()))
+        .andExpect(jsonPath("$[0].title").doesNotExist())
+        .andExpect(jsonPath("$[1].priority").value("LOW"));
+
+        // trimmed from the cached list
+        mockMvc.perform(get("/api/todos/priority").param("priority", "LOW").param("fields", "title,completed"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].title").value("Fields Low"))
+        .andExpect(jsonPath("$[0].completed").value(false))
+        .andExpect(jsonPath("$[0].createdAt").doesNotExist());
+
+        mockMvc.perform(get("/api/todos").param("fields", "title,owner"))
+        .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testListReadsGoThroughSingleFlight() throws Exception {
+        double before = coalescingCalls("getTodosByPriorityAndCompleted");
+
+        mockMvc.perform(get("/api/todos/priority-completed").param("priority", "HIGH").param("completed", "false"))
+        .andExpect(status().isOk());
+
+        assertThat(coalescingCalls("getTodosByPriorityAndCompleted")).isEqualTo(before + 1);
+    }
+
+    private double coalescingCalls(String operation) {
+        return meterRegistry.find("todo.coalescing.calls").tag("operation", operation).counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
     // Test creating todo with priority and due date
     @Test
     void testCreateTodoWithPriorityAndDueDate() throws Exception {
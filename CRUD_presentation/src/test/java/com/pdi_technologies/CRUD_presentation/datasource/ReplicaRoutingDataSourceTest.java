@@ -0,0 +1,129 @@
+package com.pdi_technologies.CRUD_presentation.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Two embedded H2 databases stand in for the primary and a replica; each knows its own name
+public class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = database("primary");
+    private final FlakyDataSource replica = new FlakyDataSource(database("replica"));
+
+    @AfterEach
+    void clearPin() {
+        ReadYourWrites.clear();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary,
+                List.of(new ReplicaRoutingDataSource.Replica("replica", replica, 1)));
+
+        assertThat(whoAmI(routing, true)).isEqualTo("replica");
+        assertThat(whoAmI(routing, false)).isEqualTo("primary");
+        assertThat(new JdbcTemplate(new LazyConnectionDataSourceProxy(routing))
+                .queryForObject("SELECT name FROM whoami", String.class)).isEqualTo("primary");
+    }
+
+    @Test
+    void recentWritersReadFromThePrimary() {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary,
+                List.of(new ReplicaRoutingDataSource.Replica("replica", replica, 1)));
+
+        ReadYourWrites.pinToPrimary();
+        assertThat(whoAmI(routing, true)).isEqualTo("primary");
+    }
+
+    @Test
+    void cacheFillingReadsGoToThePrimary() {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary,
+                List.of(new ReplicaRoutingDataSource.Replica("replica", replica, 1)));
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(true);
+
+        String name = transaction.execute(status -> ReadYourWrites.onPrimary(() ->
+                new JdbcTemplate(dataSource).queryForObject("SELECT name FROM whoami", String.class)));
+        assertThat(name).isEqualTo("primary");
+        assertThat(ReadYourWrites.isPinned()).isFalse();
+        assertThat(whoAmI(routing, true)).isEqualTo("replica");
+    }
+
+    @Test
+    void failedReplicaFallsBackToPrimaryUntilHealthy() {
+        ReplicaRoutingDataSource.Replica replicaEntry = new ReplicaRoutingDataSource.Replica("replica", replica, 1);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(replicaEntry));
+
+        replica.down = true;
+        assertThat(whoAmI(routing, true)).isEqualTo("primary");
+        assertThat(replicaEntry.isHealthy()).isFalse();
+
+        routing.checkReplicas();
+        assertThat(replicaEntry.isHealthy()).isFalse();
+
+        replica.down = false;
+        routing.checkReplicas();
+        assertThat(replicaEntry.isHealthy()).isTrue();
+        assertThat(whoAmI(routing, true)).isEqualTo("replica");
+    }
+
+    @Test
+    void zeroWeightReplicaGetsNoReads() {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(
+                new ReplicaRoutingDataSource.Replica("drained", database("drained"), 0),
+                new ReplicaRoutingDataSource.Replica("replica", replica, 1)));
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(whoAmI(routing, true)).isEqualTo("replica");
+        }
+    }
+
+    private static String whoAmI(ReplicaRoutingDataSource routing, boolean readOnly) {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("SELECT name FROM whoami", String.class));
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:routing_" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS whoami (name VARCHAR(20))");
+        jdbc.execute("DELETE FROM whoami");
+        jdbc.update("INSERT INTO whoami VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static class FlakyDataSource extends DelegatingDataSource {
+
+        volatile boolean down;
+
+        FlakyDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("replica is down");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.pdi_technologies.CRUD_presentation.duedate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.CRUD_presentation.domain.TodoSnapshot;
+import com.pdi_technologies.CRUD_presentation.event.TodoBecameOverdueEvent;
+import com.pdi_technologies.CRUD_presentation.event.TodoChangedEvent;
+import com.pdi_technologies.CRUD_presentation.tenant.TenantContext;
+
+public class TodoDueDateIndexTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<Object> published = new ArrayList<>();
+
+    @Test
+    void daysMissedWhileDownAreReportedAfterARestart() throws Exception {
+        LocalDate today = LocalDate.now();
+        Path watermark = directory.resolve("due-dates.watermark");
+        // the application last rolled over three days ago
+        Files.writeString(watermark, today.minusDays(3).toString());
+
+        TodoDueDateIndex index = new TodoDueDateIndex(published::add, watermark.toString());
+        index.apply(new TodoChangedEvent(null, todo(1, today.minusDays(2))));
+        index.apply(new TodoChangedEvent(null, todo(2, today.minusDays(5))));
+        index.rollover();
+
+        assertThat(published).containsExactly(
+                new TodoBecameOverdueEvent(1L, TenantContext.DEFAULT, Todo.Priority.HIGH, today.minusDays(2)));
+        assertThat(Files.readString(watermark)).isEqualTo(today.toString());
+
+        // reported once, the next start begins where this one left off
+        published.clear();
+        TodoDueDateIndex restarted = new TodoDueDateIndex(published::add, watermark.toString());
+        restarted.apply(new TodoChangedEvent(null, todo(1, today.minusDays(2))));
+        restarted.rollover();
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    void eventsOvertakenByNewerOnesAreIgnored() {
+        LocalDate today = LocalDate.now();
+        TodoDueDateIndex index = new TodoDueDateIndex(published::add, "");
+        TodoSnapshot created = todo(1, today.plusDays(1), false, 0);
+        TodoSnapshot completed = todo(1, today.plusDays(1), true, 1);
+        TodoSnapshot cleared = todo(2, null, false, 1);
+        // each update committed after the other event but arrives before it
+        index.apply(new TodoChangedEvent(created, completed));
+        index.apply(new TodoChangedEvent(null, created));
+        index.apply(new TodoChangedEvent(todo(2, today.plusDays(1), false, 0), cleared));
+        index.apply(new TodoChangedEvent(null, todo(2, today.plusDays(1), false, 0)));
+
+        index.advanceTo(today.plusDays(2));
+        assertThat(published).isEmpty();
+        assertThat(index.overdue(TenantContext.DEFAULT, today.plusDays(2))).isEmpty();
+        assertThat(index.dueBefore(TenantContext.DEFAULT, today.plusDays(2))).containsExactly(1L);
+    }
+
+    private static TodoSnapshot todo(long id, LocalDate dueDate) {
+        return todo(id, dueDate, false, 0);
+    }
+
+    private static TodoSnapshot todo(long id, LocalDate dueDate, boolean completed, long version) {
+        return new TodoSnapshot(id, TenantContext.DEFAULT, "Due " + dueDate, completed, LocalDateTime.now(),
+                Todo.Priority.HIGH, dueDate, completed ? LocalDateTime.now() : null, version);
+    }
+}
@@ -0,0 +1,51 @@
+package com.pdi_technologies.CRUD_presentation.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.CRUD_presentation.domain.TodoSnapshot;
+import com.pdi_technologies.CRUD_presentation.event.TodoChangedEvent;
+import com.pdi_technologies.CRUD_presentation.tenant.TenantContext;
+
+public class TodoSearchIndexTest {
+
+    private final TodoSearchIndex index = new TodoSearchIndex(64);
+
+    @Test
+    void eventsOvertakenByNewerOnesAreIgnored() {
+        TodoSnapshot created = todo(1, "Buy milk", 0);
+        TodoSnapshot renamed = todo(1, "Buy bread", 1);
+        TodoSnapshot renamedAgain = todo(1, "Buy cheese", 2);
+        index.apply(new TodoChangedEvent(null, created));
+        index.apply(new TodoChangedEvent(renamed, renamedAgain));
+        index.apply(new TodoChangedEvent(created, renamed)); // committed first, arrives last
+
+        assertThat(search("cheese")).containsExactly(1L);
+        assertThat(search("bread")).isEmpty();
+    }
+
+    @Test
+    void updateArrivingAfterTheDeleteDoesNotBringTheTodoBack() {
+        TodoSnapshot created = todo(1, "Buy milk", 0);
+        TodoSnapshot renamed = todo(1, "Buy bread", 1);
+        index.apply(new TodoChangedEvent(null, created));
+        index.apply(new TodoChangedEvent(renamed, null));
+        index.apply(new TodoChangedEvent(created, renamed));
+
+        assertThat(search("buy")).isEmpty();
+    }
+
+    private List<Long> search(String query) {
+        return index.search(TenantContext.DEFAULT, query, 10, false);
+    }
+
+    private static TodoSnapshot todo(long id, String title, long version) {
+        return new TodoSnapshot(id, TenantContext.DEFAULT, title, false, LocalDateTime.now(), Todo.Priority.MEDIUM,
+                null, null, version);
+    }
+}
@@ -0,0 +1,39 @@
+package com.pdi_technologies.CRUD_presentation.transfer;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.pdi_technologies.CRUD_presentation.dto.TodoImportRow;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class TodoImporterTest {
+
+    // no rows are written, so neither the repository nor a transaction manager is needed
+    private final TodoImporter importer = new TodoImporter(null, null, new SimpleMeterRegistry(), 10, 100);
+
+    @Test
+    void mappingErrorWithoutALocationIsStillMalformedInput() {
+        MappingIterator<TodoImportRow> rows = new MappingIterator<>(null, null, null, null, false, null) {
+            @Override
+            public boolean hasNextValue() {
+                return true;
+            }
+
+            @Override
+            public TodoImportRow nextValue() throws IOException {
+                throw JsonMappingException.from((JsonParser) null, "Unexpected row");
+            }
+        };
+
+        assertThatThrownBy(() -> importer.importTodos(rows))
+                .isInstanceOf(TodoImporter.MalformedImportException.class)
+                .hasMessage("Unexpected row (0 todos imported before it)");
+    }
+}
@@ -0,0 +1,233 @@
+package com.pdi_technologies.CRUD_presentation.writebehind;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pdi_technologies.CRUD_presentation.cache.TodoCacheInvalidator;
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.CRUD_presentation.event.TodoChangeTracker;
+import com.pdi_technologies.CRUD_presentation.repository.TodoRepository;
+import com.pdi_technologies.CRUD_presentation.tenant.TenantContext;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+
+// Flushes only happen when the test asks for them
+@SpringBootTest(properties = {"todo.write-behind.enabled=true", "todo.write-behind.flush-interval=1h"})
+@AutoConfigureMockMvc
+public class TodoWriteBehindTest {
+
+    @TempDir
+    static Path directory;
+
+    @DynamicPropertySource
+    static void logPath(DynamicPropertyRegistry registry) {
+        registry.add("todo.write-behind.log-path", () -> directory.resolve("todo.log").toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TodoWriteBehind writeBehind;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TodoCacheInvalidator cacheInvalidator;
+
+    @Autowired
+    private TodoChangeTracker changeTracker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        writeBehind.flush();
+        TenantContext.runAs(TenantContext.ROOT, todoRepository::deleteAll);
+    }
+
+    @Test
+    void writesAreAcknowledgedBeforeTheyAreFlushed() throws Exception {
+        long id = create("Write Behind");
+        long gone = create("Created And Deleted");
+
+        mockMvc.perform(patch("/api/todos/{id}", id)
+        .contentType("application/merge-patch+json")
+        .content("{\"priority\": \"HIGH\"}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.version").value(1));
+        mockMvc.perform(patch("/api/todos/{id}", id)
+        .contentType("application/merge-patch+json")
+        .content("{\"completed\": true}"))
+        .andExpect(jsonPath("$.version").value(2));
+        mockMvc.perform(delete("/api/todos/{id}", gone))
+        .andExpect(status().isNoContent());
+
+        // served from the pending writes, nothing in the database yet
+        mockMvc.perform(get("/api/todos/{id}", id))
+        .andExpect(jsonPath("$.priority").value("HIGH"))
+        .andExpect(jsonPath("$.completed").value(true));
+        assertThat(todoRepository.count()).isZero();
+
+        writeBehind.flush();
+
+        assertThat(todoRepository.findAll()).singleElement().satisfies(todo -> {
+            assertThat(todo.getId()).isEqualTo(id);
+            assertThat(todo.getPriority()).isEqualTo(Todo.Priority.HIGH);
+            assertThat(todo.isCompleted()).isTrue();
+            assertThat(todo.getVersion()).isEqualTo(2);
+        });
+
+        // once flushed, further writes are UPDATEs of the row
+        mockMvc.perform(patch("/api/todos/{id}", id)
+        .contentType("application/merge-patch+json")
+        .content("{\"title\": \"Write Behind Renamed\"}"))
+        .andExpect(status().isOk());
+        writeBehind.flush();
+        assertThat(todoRepository.findById(id)).get().extracting(Todo::getTitle).isEqualTo("Write Behind Renamed");
+    }
+
+    @Test
+    void listsAndETagsChangeWithTheFlush() throws Exception {
+        long version = changeTracker.version(TenantContext.DEFAULT);
+        mockMvc.perform(get("/api/todos/completed").param("completed", "false"))
+        .andExpect(jsonPath("$.length()").value(0));
+
+        long id = create("Not Listed Before The Flush");
+
+        // the cached list and its ETag stay as they are while the table hasn't changed
+        assertThat(changeTracker.version(TenantContext.DEFAULT)).isEqualTo(version);
+        mockMvc.perform(get("/api/todos/completed").param("completed", "false"))
+        .andExpect(jsonPath("$.length()").value(0));
+
+        writeBehind.flush();
+
+        assertThat(changeTracker.version(TenantContext.DEFAULT)).isEqualTo(version + 1);
+        mockMvc.perform(get("/api/todos/completed").param("completed", "false"))
+        .andExpect(jsonPath("$[0].id").value(id));
+    }
+
+    @Test
+    void writesToARowChangedMeanwhileAreDropped() throws Exception {
+        long id = create("Stored");
+        writeBehind.flush();
+
+        mockMvc.perform(patch("/api/todos/{id}", id)
+        .contentType("application/merge-patch+json")
+        .content("{\"title\": \"Pending\"}"))
+        .andExpect(jsonPath("$.version").value(1));
+        // as a bulk or batch update writing through before the flush
+        jdbcTemplate.update("UPDATE todo SET title = 'Written Through', version = version + 1 WHERE id = ?", id);
+        double dropped = dropped("conflict");
+
+        writeBehind.flush();
+
+        assertThat(todoRepository.findById(id)).get().extracting(Todo::getTitle).isEqualTo("Written Through");
+        assertThat(dropped("conflict")).isEqualTo(dropped + 1);
+        mockMvc.perform(get("/api/todos/{id}", id))
+        .andExpect(jsonPath("$.title").value("Written Through"));
+    }
+
+    @Test
+    void aRejectedWriteDoesNotHoldBackTheOthers() throws Exception {
+        long id = create("Stored");
+        writeBehind.flush();
+
+        mockMvc.perform(patch("/api/todos/{id}", id)
+        .contentType("application/merge-patch+json")
+        .content("{\"priority\": \"HIGH\"}"))
+        .andExpect(status().isOk());
+        long taken = create("Taken Id");
+        // the row the INSERT is going to collide with
+        jdbcTemplate.update("INSERT INTO todo (id, tenant_id, title, completed, created_at, priority, version) "
+                + "VALUES (?, ?, 'Already There', false, CURRENT_TIMESTAMP, 'LOW', 0)", taken, TenantContext.DEFAULT);
+        double dropped = dropped("rejected");
+
+        writeBehind.flush();
+
+        assertThat(todoRepository.findById(id)).get().extracting(Todo::getPriority).isEqualTo(Todo.Priority.HIGH);
+        assertThat(todoRepository.findById(taken)).get().extracting(Todo::getTitle).isEqualTo("Already There");
+        assertThat(dropped("rejected")).isEqualTo(dropped + 1);
+
+        // and later flushes go through
+        long later = create("Flushed Later");
+        writeBehind.flush();
+        assertThat(todoRepository.findById(later)).isPresent();
+    }
+
+    @Test
+    void acknowledgedWritesSurviveACrashBeforeTheFlush() throws Exception {
+        long id = create("Survives A Crash");
+        Path crashed = directory.resolve("crashed.log");
+        Files.copy(directory.resolve("todo.log"), crashed);
+
+        // as if the process had died before this flush
+        writeBehind.flush();
+        TenantContext.runAs(TenantContext.ROOT, todoRepository::deleteAll);
+
+        TodoWriteBehind restarted = new TodoWriteBehind(objectMapper, jdbcTemplate, transactionManager, entityManager,
+                eventPublisher, cacheInvalidator, new SimpleMeterRegistry(), crashed, DataSize.ofMegabytes(1), true);
+        try {
+            restarted.recover();
+        } finally {
+            restarted.close();
+        }
+
+        assertThat(todoRepository.findById(id)).get().extracting(Todo::getTitle).isEqualTo("Survives A Crash");
+    }
+
+    private double dropped(String reason) {
+        var counter = meterRegistry.find("todo.write-behind.dropped").tag("reason", reason).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private long create(String title) throws Exception {
+        Todo todo = new Todo();
+        todo.setTitle(title);
+        String body = mockMvc.perform(post("/api/todos")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(todo)))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+}
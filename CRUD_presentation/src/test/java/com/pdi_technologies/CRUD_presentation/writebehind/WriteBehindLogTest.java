@@ -0,0 +1,88 @@
+package com.pdi_technologies.CRUD_presentation.writebehind;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class WriteBehindLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysWhatWasNotCheckpointed() throws Exception {
+        Path file = directory.resolve("log");
+        try (WriteBehindLog log = new WriteBehindLog(file, 4096, true)) {
+            log.unapplied();
+            log.append(bytes("one"));
+            int applied = log.position();
+            log.append(bytes("two"));
+            log.append(bytes("three"));
+            log.checkpoint(applied);
+        }
+
+        try (WriteBehindLog log = new WriteBehindLog(file, 4096, true)) {
+            assertThat(strings(log.unapplied())).containsExactly("two", "three");
+            // appends continue after the replayed records
+            log.append(bytes("four"));
+        }
+
+        try (WriteBehindLog log = new WriteBehindLog(file, 4096, true)) {
+            assertThat(strings(log.unapplied())).containsExactly("two", "three", "four");
+        }
+    }
+
+    @Test
+    void startsOverOnceEverythingIsApplied() throws Exception {
+        Path file = directory.resolve("log");
+        try (WriteBehindLog log = new WriteBehindLog(file, 64, false)) {
+            log.unapplied();
+            assertThat(log.append(bytes("0123456789012345678901234567890123456789"))).isTrue();
+            assertThat(log.append(bytes("full"))).isFalse();
+
+            log.checkpoint(log.position());
+
+            assertThat(log.isEmpty()).isTrue();
+            assertThat(log.append(bytes("fits again"))).isTrue();
+        }
+
+        try (WriteBehindLog log = new WriteBehindLog(file, 64, false)) {
+            assertThat(strings(log.unapplied())).containsExactly("fits again");
+        }
+    }
+
+    @Test
+    void tornRecordEndsTheReplay() throws Exception {
+        Path file = directory.resolve("log");
+        int torn;
+        try (WriteBehindLog log = new WriteBehindLog(file, 4096, true)) {
+            log.unapplied();
+            log.append(bytes("complete"));
+            torn = log.position();
+            log.append(bytes("half written"));
+        }
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(torn + 12);
+            raw.write('X');
+        }
+
+        try (WriteBehindLog log = new WriteBehindLog(file, 4096, true)) {
+            assertThat(strings(log.unapplied())).containsExactly("complete");
+            assertThat(log.position()).isEqualTo(torn);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> strings(List<byte[]> payloads) {
+        return payloads.stream().map(payload -> new String(payload, StandardCharsets.UTF_8)).toList();
+    }
+}
@@ -0,0 +1,54 @@
+package com.pdi_technologies.benchmarks;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+
+// getTodosByPriorityAndDueDate: the original load-the-priority-then-filter-in-Java path
+// against the (priority, due_date) index query that replaced it.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class PriorityDueDateFilterBenchmark {
+
+    @State(Scope.Thread)
+    public static class Inputs {
+        private final SplittableRandom random = new SplittableRandom(SeededDatabase.SEED);
+
+        Todo.Priority priority() {
+            return Todo.Priority.values()[random.nextInt(Todo.Priority.values().length)];
+        }
+
+        LocalDate dueDate(SeededDatabase db) {
+            return db.generator.today().plusDays(random.nextInt(-30, 60));
+        }
+    }
+
+    @Benchmark
+    public List<Todo> inMemoryFilter(SeededDatabase db, Inputs inputs) {
+        LocalDate dueDate = inputs.dueDate(db);
+        return db.todoRepository.findByPriority(inputs.priority()).stream()
+                .filter(todo -> todo.getDueDate() != null && todo.getDueDate().equals(dueDate))
+                .toList();
+    }
+
+    @Benchmark
+    public List<Todo> indexedQuery(SeededDatabase db, Inputs inputs) {
+        return db.todoService.getTodosByPriorityAndDueDate(inputs.priority(), inputs.dueDate(db));
+    }
+}
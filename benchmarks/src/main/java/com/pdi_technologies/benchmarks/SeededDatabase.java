@@ -0,0 +1,78 @@
+package com.pdi_technologies.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.pdi_technologies.CRUD_presentation.CrudPresentationApplication;
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.CRUD_presentation.repository.TodoRepository;
+import com.pdi_technologies.CRUD_presentation.service.TodoService;
+
+// The application context on an in-memory H2 database, seeded once per trial through the
+// regular TodoService batch path so caches, indexes and read models see every row.
+@State(Scope.Benchmark)
+public class SeededDatabase {
+
+    private static final int SEED_BATCH_SIZE = 1000;
+    static final long SEED = 42L;
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    public ConfigurableApplicationContext context;
+    public TodoService todoService;
+    public TodoRepository todoRepository;
+    public TodoGenerator generator;
+    public long minId;
+    public long maxId;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(CrudPresentationApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:bench" + rows + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--todo.due-dates.watermark-path=", // nothing written to the working directory
+                        "--logging.level.root=WARN");
+        todoService = context.getBean(TodoService.class);
+        todoRepository = context.getBean(TodoRepository.class);
+
+        generator = new TodoGenerator(SEED);
+        List<Todo> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        minId = Long.MAX_VALUE;
+        for (int i = 0; i < rows; i++) {
+            batch.add(generator.next());
+            if (batch.size() == SEED_BATCH_SIZE || i == rows - 1) {
+                todoService.createTodos(batch).forEach(result -> {
+                    minId = Math.min(minId, result.id());
+                    maxId = Math.max(maxId, result.id());
+                });
+                batch.clear();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+}
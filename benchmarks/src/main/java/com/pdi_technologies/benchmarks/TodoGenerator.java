@@ -0,0 +1,63 @@
+package com.pdi_technologies.benchmarks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.SplittableRandom;
+
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+
+// Deterministic todo rows: the same seed always yields the same sequence, so runs on
+// different machines or branches measure the same data.
+public final class TodoGenerator {
+
+    private static final String[] WORDS = {
+        "buy", "milk", "bread", "call", "mom", "renew", "passport", "license", "fix", "bug",
+        "review", "pull", "request", "deploy", "release", "write", "report", "plan", "sprint", "meeting",
+        "book", "flight", "hotel", "pay", "rent", "invoice", "clean", "kitchen", "garage", "walk",
+        "dog", "water", "plants", "update", "resume", "prepare", "slides", "backup", "laptop", "order"
+    };
+
+    // LOW, MEDIUM, HIGH, URGENT in roughly 30/40/20/10 proportions
+    private static final int[] PRIORITY_WEIGHTS = {30, 70, 90, 100};
+
+    private final SplittableRandom random;
+    private final LocalDate today;
+
+    public TodoGenerator(long seed) {
+        this.random = new SplittableRandom(seed);
+        this.today = LocalDate.of(2025, 1, 1);
+    }
+
+    public Todo next() {
+        Todo todo = new Todo();
+        int words = 2 + random.nextInt(4);
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                title.append(' ');
+            }
+            title.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        todo.setTitle(title.toString());
+        todo.setCompleted(random.nextInt(100) < 30);
+        todo.setCreatedAt(LocalDateTime.of(today, LocalTime.NOON).minusMinutes(random.nextInt(525_600)));
+        todo.setPriority(priority(random.nextInt(100)));
+        // one in five has no due date, the rest fall between a month ago and two months ahead
+        todo.setDueDate(random.nextInt(5) == 0 ? null : today.plusDays(random.nextInt(-30, 60)));
+        return todo;
+    }
+
+    public LocalDate today() {
+        return today;
+    }
+
+    private static Todo.Priority priority(int roll) {
+        for (int i = 0; i < PRIORITY_WEIGHTS.length; i++) {
+            if (roll < PRIORITY_WEIGHTS[i]) {
+                return Todo.Priority.values()[i];
+            }
+        }
+        return Todo.Priority.URGENT;
+    }
+}
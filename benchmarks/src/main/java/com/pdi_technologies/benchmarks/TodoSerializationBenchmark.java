@@ -0,0 +1,86 @@
+package com.pdi_technologies.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pdi_technologies.CRUD_presentation.config.BinaryFormats;
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+
+// Jackson serialization of List<Todo> as the list endpoints return it, in each wire format the
+// API negotiates: JSON configured the way Spring Boot configures the web one, and CBOR and Smile
+// with ordinal enums and numeric dates. The payload sizes, raw and gzipped, are printed once per
+// trial since JMH only measures time.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TodoSerializationBenchmark {
+
+    @Param({"100", "10000"})
+    public int size;
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+    private List<Todo> todos;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = switch (format) {
+            case "cbor" -> BinaryFormats.cborMapper();
+            case "smile" -> BinaryFormats.smileMapper();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        TodoGenerator generator = new TodoGenerator(SeededDatabase.SEED);
+        todos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Todo todo = generator.next();
+            todo.setId((long) i + 1);
+            todos.add(todo);
+        }
+        byte[] payload = serializeList();
+        System.out.printf("%n%s, %d todos: %d bytes, %d gzipped%n", format, size, payload.length, gzip(payload).length);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(todos);
+    }
+
+    // what a client gets with server.compression, serialization plus gzip
+    @Benchmark
+    public byte[] serializeListGzipped() throws IOException {
+        return gzip(objectMapper.writeValueAsBytes(todos));
+    }
+
+    private static byte[] gzip(byte[] payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(payload);
+        }
+        return out.toByteArray();
+    }
+}
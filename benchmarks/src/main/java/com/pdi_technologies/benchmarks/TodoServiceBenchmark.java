@@ -0,0 +1,92 @@
+package com.pdi_technologies.benchmarks;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.CRUD_presentation.repository.TodoQuery;
+
+// TodoService CRUD and filter methods; the repository-level variants show the cost of a
+// cache miss next to the cached service call.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class TodoServiceBenchmark {
+
+    @State(Scope.Thread)
+    public static class Inputs {
+        private final SplittableRandom random = new SplittableRandom(SeededDatabase.SEED);
+
+        long id(SeededDatabase db) {
+            return random.nextLong(db.minId, db.maxId + 1);
+        }
+
+        Todo.Priority priority() {
+            return Todo.Priority.values()[random.nextInt(Todo.Priority.values().length)];
+        }
+    }
+
+    @Benchmark
+    public Optional<Todo> getTodoById(SeededDatabase db, Inputs inputs) {
+        return db.todoService.getTodoById(inputs.id(db));
+    }
+
+    @Benchmark
+    public Optional<Todo> repositoryFindById(SeededDatabase db, Inputs inputs) {
+        return db.todoRepository.findById(inputs.id(db));
+    }
+
+    @Benchmark
+    public List<Todo> getTodosAfter(SeededDatabase db, Inputs inputs) {
+        return db.todoService.getTodosAfter(inputs.id(db), 100);
+    }
+
+    @Benchmark
+    public List<Todo> getTodosByPriority(SeededDatabase db, Inputs inputs) {
+        return db.todoService.getTodosByPriority(inputs.priority());
+    }
+
+    @Benchmark
+    public List<Todo> getOverdueTodos(SeededDatabase db) {
+        return db.todoService.getOverdueTodos();
+    }
+
+    @Benchmark
+    public List<Todo> queryTodos(SeededDatabase db, Inputs inputs) {
+        LocalDate from = db.generator.today();
+        return db.todoService.queryTodos(
+                new TodoQuery(false, Set.of(inputs.priority()), from, from.plusDays(7), null), 100);
+    }
+
+    @Benchmark
+    public List<Todo> searchTodos(SeededDatabase db) {
+        return db.todoService.searchTodos("renew pass", 20);
+    }
+
+    @Benchmark
+    public Long createUpdateDelete(SeededDatabase db) {
+        Todo todo = new Todo();
+        todo.setTitle("benchmark write");
+        Todo saved = db.todoService.saveTodo(todo);
+        todo.setCompleted(true);
+        db.todoService.updateTodo(saved.getId(), todo);
+        db.todoService.deleteTodo(saved.getId());
+        return saved.getId();
+    }
+}
@@ -0,0 +1,175 @@
+package com.pdi_technologies.benchmarks.load;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.benchmarks.TodoGenerator;
+
+// The request mix: every request/response endpoint of TodoController with a weight roughly
+// matching a read-heavy UI, reads about 85% and writes about 15%. The SSE change feed is left
+// out, it holds a connection open instead of answering requests. Ids are drawn from the seeded
+// range and dates from the generator's calendar, so filters hit data.
+final class LoadMix {
+
+    record Endpoint(String name, int weight, Function<SplittableRandom, HttpRequest> request) {
+    }
+
+    private static final String[] WORDS = {"buy", "call", "review", "deploy", "book", "pay", "fix", "plan"};
+
+    private final URI base;
+    private final ObjectMapper objectMapper;
+    private final long minId;
+    private final long maxId;
+    private final LocalDate today;
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private final int totalWeight;
+
+    LoadMix(URI base, ObjectMapper objectMapper, long minId, long maxId, LocalDate today) {
+        this.base = base;
+        this.objectMapper = objectMapper;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.today = today;
+
+        get("GET /api/todos", 10, r -> "?size=100");
+        get("GET /api/todos/{id}", 20, r -> "/" + id(r));
+        get("GET /api/todos/query", 8, r -> "/query?completed=false&priority=" + priority(r)
+                + "&dueFrom=" + date(r) + "&dueTo=" + date(r).plusDays(7) + "&limit=100");
+        get("GET /api/todos/search", 8, r -> "/search?q=" + encode(word(r) + " " + word(r)));
+        get("GET /api/todos/title", 3, r -> "/title?title=" + word(r));
+        get("GET /api/todos/stats", 5, r -> "/stats");
+        get("GET /api/todos/overdue", 3, r -> "/overdue");
+        get("GET /api/todos/due-range", 3, r -> "/due-range?startDate=" + date(r) + "&endDate=" + date(r).plusDays(7));
+        get("GET /api/todos/due-date", 2, r -> "/due-date?dueDate=" + date(r));
+        get("GET /api/todos/priority-due-date", 2, r -> "/priority-due-date?priority=" + priority(r) + "&dueDate=" + date(r));
+        get("GET /api/todos/sorted", 2, r -> "/sorted?limit=100");
+        get("GET /api/todos/due-before", 1, r -> "/due-before?date=" + today.minusDays(25));
+        get("GET /api/todos/due-after", 1, r -> "/due-after?date=" + today.plusDays(55));
+        get("GET /api/todos/priority", 1, r -> "/priority?priority=URGENT");
+        get("GET /api/todos/priority-completed", 1, r -> "/priority-completed?priority=" + priority(r) + "&completed=true");
+        get("GET /api/todos/completed", 1, r -> "/completed?completed=true");
+        get("GET /api/todos/stream", 1, r -> "/stream");
+        get("GET /api/todos/export", 1, r -> "/export?format=csv");
+
+        add("POST /api/todos", 5, r -> json("", "POST", generator(r).next()));
+        add("PUT /api/todos/{id}", 3, r -> json("/" + id(r), "PUT", generator(r).next()));
+        add("PATCH /api/todos/{id}", 5, r -> request("/" + id(r))
+                .header("Content-Type", "application/merge-patch+json")
+                .method("PATCH", body("{\"completed\":" + r.nextBoolean() + "}"))
+                .build());
+        add("DELETE /api/todos/{id}", 1, r -> request("/" + id(r)).DELETE().build());
+        add("PATCH /api/todos", 1, r -> request("?priority=" + priority(r) + "&dueFrom=" + date(r) + "&dueTo=" + date(r))
+                .header("Content-Type", "application/merge-patch+json")
+                .method("PATCH", body("{\"priority\":\"" + priority(r) + "\"}"))
+                .build());
+        add("POST /api/todos/batch", 1, r -> json("/batch", "POST", todos(r, 10, false)));
+        add("PUT /api/todos/batch", 1, r -> json("/batch", "PUT", todos(r, 10, true)));
+        add("DELETE /api/todos/batch", 1, r -> json("/batch", "DELETE", List.of(id(r), id(r), id(r))));
+        add("POST /api/todos/import", 1, r -> {
+            StringBuilder ndjson = new StringBuilder();
+            for (Todo todo : todos(r, 10, false)) {
+                ndjson.append(write(todo)).append('\n');
+            }
+            return request("/import")
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(body(ndjson.toString()))
+                    .build();
+        });
+
+        this.totalWeight = endpoints.stream().mapToInt(Endpoint::weight).sum();
+    }
+
+    List<Endpoint> endpoints() {
+        return endpoints;
+    }
+
+    Endpoint pick(SplittableRandom random) {
+        int roll = random.nextInt(totalWeight);
+        for (Endpoint endpoint : endpoints) {
+            roll -= endpoint.weight();
+            if (roll < 0) {
+                return endpoint;
+            }
+        }
+        throw new IllegalStateException("weights changed");
+    }
+
+    private void get(String name, int weight, Function<SplittableRandom, String> path) {
+        add(name, weight, r -> request(path.apply(r)).GET().build());
+    }
+
+    private void add(String name, int weight, Function<SplittableRandom, HttpRequest> request) {
+        endpoints.add(new Endpoint(name, weight, request));
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(base + "/api/todos" + path));
+    }
+
+    private HttpRequest json(String path, String method, Object body) {
+        return request(path)
+                .header("Content-Type", "application/json")
+                .method(method, body(write(body)))
+                .build();
+    }
+
+    private List<Todo> todos(SplittableRandom random, int count, boolean withIds) {
+        TodoGenerator generator = generator(random);
+        List<Todo> todos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Todo todo = generator.next();
+            if (withIds) {
+                todo.setId(id(random));
+            }
+            todos.add(todo);
+        }
+        return todos;
+    }
+
+    // a generator per request keeps the workers from sharing one random sequence
+    private static TodoGenerator generator(SplittableRandom random) {
+        return new TodoGenerator(random.nextLong());
+    }
+
+    private long id(SplittableRandom random) {
+        return random.nextLong(minId, maxId + 1);
+    }
+
+    private LocalDate date(SplittableRandom random) {
+        return today.plusDays(random.nextInt(-30, 60));
+    }
+
+    private static Todo.Priority priority(SplittableRandom random) {
+        return Todo.Priority.values()[random.nextInt(Todo.Priority.values().length)];
+    }
+
+    private static String word(SplittableRandom random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static HttpRequest.BodyPublisher body(String body) {
+        return HttpRequest.BodyPublishers.ofString(body);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
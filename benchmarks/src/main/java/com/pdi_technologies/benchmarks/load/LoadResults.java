@@ -0,0 +1,124 @@
+package com.pdi_technologies.benchmarks.load;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Per-endpoint latency and errors of one run, kept in Micrometer timers with client-side
+// percentiles. The percentile window is as long as any run so p99 covers every request.
+final class LoadResults {
+
+    record EndpointResult(String endpoint, long requests, long errors, double requestsPerSecond,
+            double errorRate, double p50Millis, double p90Millis, double p99Millis, double maxMillis) {
+    }
+
+    record Report(double durationSeconds, long requests, long errors, double requestsPerSecond, double errorRate,
+            List<EndpointResult> endpoints) {
+    }
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Map<LoadMix.Endpoint, Timer> timers = new LinkedHashMap<>();
+    private final Map<LoadMix.Endpoint, Counter> errors = new LinkedHashMap<>();
+    private Report report;
+
+    LoadResults(List<LoadMix.Endpoint> endpoints) {
+        for (LoadMix.Endpoint endpoint : endpoints) {
+            timers.put(endpoint, Timer.builder("load.request")
+                    .tag("endpoint", endpoint.name())
+                    .publishPercentiles(0.5, 0.9, 0.99)
+                    .distributionStatisticExpiry(Duration.ofDays(1))
+                    .distributionStatisticBufferLength(1)
+                    .register(registry));
+            errors.put(endpoint, Counter.builder("load.errors")
+                    .tag("endpoint", endpoint.name())
+                    .register(registry));
+        }
+    }
+
+    void record(LoadMix.Endpoint endpoint, long nanos, boolean ok) {
+        timers.get(endpoint).record(nanos, TimeUnit.NANOSECONDS);
+        if (!ok) {
+            errors.get(endpoint).increment();
+        }
+    }
+
+    void finish(Duration duration) {
+        double seconds = duration.toNanos() / 1e9;
+        List<EndpointResult> endpoints = new ArrayList<>();
+        long totalRequests = 0;
+        long totalErrors = 0;
+        for (var entry : timers.entrySet()) {
+            Timer timer = entry.getValue();
+            long requests = timer.count();
+            long failed = (long) errors.get(entry.getKey()).count();
+            ValueAtPercentile[] percentiles = timer.takeSnapshot().percentileValues();
+            endpoints.add(new EndpointResult(entry.getKey().name(), requests, failed, requests / seconds,
+                    rate(failed, requests),
+                    percentiles[0].value(TimeUnit.MILLISECONDS),
+                    percentiles[1].value(TimeUnit.MILLISECONDS),
+                    percentiles[2].value(TimeUnit.MILLISECONDS),
+                    timer.max(TimeUnit.MILLISECONDS)));
+            totalRequests += requests;
+            totalErrors += failed;
+        }
+        report = new Report(seconds, totalRequests, totalErrors, totalRequests / seconds,
+                rate(totalErrors, totalRequests), endpoints);
+    }
+
+    void print(PrintStream out) {
+        out.printf("%-34s %9s %9s %8s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (EndpointResult result : report.endpoints()) {
+            out.printf("%-34s %9d %9.1f %7.2f%% %9.2f %9.2f %9.2f %9.2f%n",
+                    result.endpoint(), result.requests(), result.requestsPerSecond(), result.errorRate() * 100,
+                    result.p50Millis(), result.p90Millis(), result.p99Millis(), result.maxMillis());
+        }
+        out.printf("%-34s %9d %9.1f %7.2f%%%n",
+                "total", report.requests(), report.requestsPerSecond(), report.errorRate() * 100);
+    }
+
+    void write(ObjectMapper objectMapper, Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), report);
+    }
+
+    // the thresholds this run broke, empty when it passed
+    List<String> check(double maxErrorRate, Double maxP99Millis) {
+        List<String> failures = new ArrayList<>();
+        if (report.requests() == 0) {
+            failures.add("no requests completed");
+        }
+        if (report.errorRate() > maxErrorRate) {
+            failures.add(String.format("error rate %.2f%% is over %.2f%%", report.errorRate() * 100, maxErrorRate * 100));
+        }
+        if (maxP99Millis != null) {
+            for (EndpointResult result : report.endpoints()) {
+                if (result.p99Millis() > maxP99Millis) {
+                    failures.add(String.format("%s p99 %.2f ms is over %.2f ms",
+                            result.endpoint(), result.p99Millis(), maxP99Millis));
+                }
+            }
+        }
+        return failures;
+    }
+
+    private static double rate(long failed, long requests) {
+        return requests == 0 ? 0 : (double) failed / requests;
+    }
+}
@@ -0,0 +1,190 @@
+package com.pdi_technologies.benchmarks.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pdi_technologies.CRUD_presentation.CrudPresentationApplication;
+import com.pdi_technologies.CRUD_presentation.domain.Todo;
+import com.pdi_technologies.CRUD_presentation.service.TodoService;
+import com.pdi_technologies.benchmarks.TodoGenerator;
+
+// End-to-end HTTP load against the whole stack: boots the application on a random port over an
+// in-memory H2 database, seeds --rows todos from the fixed seed, then has --concurrency workers
+// fire the LoadMix request mix in a closed loop for --warmup plus --duration. Prints per-endpoint
+// throughput, latency percentiles and error rates, writes them as JSON to --report, and exits 1
+// when the error rate or p99 is over --max-error-rate / --max-p99-ms so CI can fail on a
+// regression. --url runs the mix against an already running, already seeded server instead;
+// --min-id and --max-id then give the id range to hit.
+public final class LoadTest {
+
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int rows = Integer.parseInt(options.getOrDefault("rows", "10000"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        Duration warmup = Duration.parse("PT" + options.getOrDefault("warmup", "10s"));
+        Duration duration = Duration.parse("PT" + options.getOrDefault("duration", "30s"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        Path report = Path.of(options.getOrDefault("report", "benchmarks/target/loadtest.json"));
+        double maxErrorRate = Double.parseDouble(options.getOrDefault("max-error-rate", "0.01"));
+        Double maxP99Millis = options.containsKey("max-p99-ms") ? Double.valueOf(options.get("max-p99-ms")) : null;
+
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        TodoGenerator generator = new TodoGenerator(seed);
+
+        ConfigurableApplicationContext context = null;
+        URI base;
+        long minId;
+        long maxId;
+        if (options.containsKey("url")) {
+            base = URI.create(options.get("url"));
+            minId = Long.parseLong(options.getOrDefault("min-id", "1"));
+            maxId = Long.parseLong(options.getOrDefault("max-id", String.valueOf(rows)));
+        } else {
+            context = start(rows);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            base = URI.create("http://localhost:" + port);
+            long[] ids = seed(context.getBean(TodoService.class), generator, rows);
+            minId = ids[0];
+            maxId = ids[1];
+        }
+
+        try {
+            LoadMix mix = new LoadMix(base, objectMapper, minId, maxId, generator.today());
+            LoadResults results = run(mix, concurrency, seed, warmup, duration);
+            results.print(System.out);
+            results.write(objectMapper, report);
+            System.out.println("Report written to " + report.toAbsolutePath());
+
+            List<String> failures = results.check(maxErrorRate, maxP99Millis);
+            failures.forEach(failure -> System.out.println("FAILED: " + failure));
+            if (!failures.isEmpty()) {
+                System.exit(1);
+            }
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(int rows) {
+        return new SpringApplicationBuilder(CrudPresentationApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:load" + rows + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--todo.due-dates.watermark-path=", // nothing written to the working directory
+                        "--todo.admission.enabled=false", // all workers share one address
+                        "--logging.level.root=WARN");
+    }
+
+    // through the regular TodoService batch path so caches, indexes and read models see every row;
+    // returns the smallest and largest id
+    private static long[] seed(TodoService todoService, TodoGenerator generator, int rows) {
+        long started = System.nanoTime();
+        long minId = Long.MAX_VALUE;
+        long maxId = Long.MIN_VALUE;
+        List<Todo> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            batch.add(generator.next());
+            if (batch.size() == SEED_BATCH_SIZE || i == rows - 1) {
+                for (var result : todoService.createTodos(batch)) {
+                    minId = Math.min(minId, result.id());
+                    maxId = Math.max(maxId, result.id());
+                }
+                batch.clear();
+            }
+        }
+        System.out.printf("Seeded %d todos in %d ms%n", rows, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return new long[] {minId, maxId};
+    }
+
+    private static LoadResults run(LoadMix mix, int concurrency, long seed, Duration warmup, Duration duration)
+            throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        LoadResults results = new LoadResults(mix.endpoints());
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long stopAt = measureFrom + duration.toNanos();
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            SplittableRandom random = new SplittableRandom(seed + i);
+            workers.execute(() -> {
+                long now;
+                while ((now = System.nanoTime()) < stopAt) {
+                    LoadMix.Endpoint endpoint = mix.pick(random);
+                    boolean ok;
+                    try {
+                        HttpResponse<Void> response = client.send(endpoint.request().apply(random),
+                                HttpResponse.BodyHandlers.discarding());
+                        ok = expected(response.statusCode());
+                    } catch (Exception e) {
+                        if (e instanceof InterruptedException) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        ok = false;
+                    }
+                    if (now >= measureFrom) {
+                        results.record(endpoint, System.nanoTime() - now, ok);
+                    }
+                }
+            });
+        }
+        System.out.printf("Running %d workers for %s warmup + %s%n", concurrency, warmup, duration);
+        workers.shutdown();
+        workers.awaitTermination(warmup.plus(duration).plusMinutes(1).toMillis(), TimeUnit.MILLISECONDS);
+        results.finish(duration);
+        return results;
+    }
+
+    // random ids hit deleted todos and concurrent writers race on versions, so not found, conflict
+    // and precondition failed are answers the mix expects rather than errors
+    private static boolean expected(int status) {
+        return status < 400 || status == 404 || status == 409 || status == 412;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+}
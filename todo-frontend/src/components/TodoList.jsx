@@ -1,5 +1,5 @@
 import React, { useState, useEffect, useCallback } from 'react';
-import { getTodos, updateTodo, deleteTodo } from '../services/todoService';
+import { getTodos, patchTodo, deleteTodo, subscribeToChanges } from '../services/todoService';
 
 const TodoList = ({ refreshTrigger, onEditTodo }) => {
   const [todos, setTodos] = useState([]);
@@ -17,6 +17,16 @@ const TodoList = ({ refreshTrigger, onEditTodo }) => {
     loadTodos();
   }, [refreshTrigger]);
 
+  // Apply other users' changes as they happen instead of re-fetching the whole list
+  useEffect(() => {
+    return subscribeToChanges((change) => {
+      setTodos(prevTodos => {
+        const others = prevTodos.filter(t => t.id !== change.todoId);
+        return change.type === 'DELETED' ? others : [...others, { ...change.todo }];
+      });
+    }, loadTodos);
+  }, []);
+
   const loadTodos = async () => {
     setIsLoading(true);
     setError(''); // clears any existing error messages
@@ -95,10 +105,7 @@ const TodoList = ({ refreshTrigger, onEditTodo }) => {
 
   const handleToggleComplete = async (todo) => {
     try {
-      const updatedTodo = await updateTodo(todo.id, {
-        ...todo,
-        completed: !todo.completed
-      });
+      const updatedTodo = await patchTodo(todo.id, { completed: !todo.completed });
       
       setTodos(prevTodos =>
         prevTodos.map(t =>
@@ -2,19 +2,29 @@ import axios from 'axios';
 
 const API_URL = 'http://localhost:8080/api/todos';
 
+// withCredentials: the backend's read-your-writes cookie has to come back with the next reads,
+// or a read right after a write may be served by a replica that doesn't have it yet
 const api = axios.create({
   baseURL: API_URL,
   timeout: 10000,
+  withCredentials: true,
   headers: {
     'Content-Type': 'application/json',
   },
 });
 
 // API functions with error handling
+// The list endpoint is keyset-paginated: keep following X-Next-Cursor until it is absent
 export const getTodos = async () => {
   try {
-    const response = await api.get('');
-    return response.data;
+    const todos = [];
+    let cursor;
+    do {
+      const response = await api.get('', { params: cursor ? { cursor } : {} });
+      todos.push(...response.data);
+      cursor = response.headers['x-next-cursor'];
+    } while (cursor);
+    return todos;
   } catch (error) {
     console.error('Error fetching todos:', error);
     throw new Error('Failed to fetch todos. Please check if the backend server is running.');
@@ -41,6 +51,19 @@ export const updateTodo = async (id, todo) => {
   }
 };
 
+// Only sends the fields that change, e.g. { completed: true }
+export const patchTodo = async (id, changes) => {
+  try {
+    const response = await api.patch(`/${id}`, changes, {
+      headers: { 'Content-Type': 'application/merge-patch+json' },
+    });
+    return response.data;
+  } catch (error) {
+    console.error('Error updating todo:', error);
+    throw new Error('Failed to update todo. Please try again.');
+  }
+};
+
 export const deleteTodo = async (id) => {
   try {
     const response = await api.delete(`/${id}`);
@@ -60,4 +83,16 @@ export const searchTodos = async (query) => {
     console.error('Error searching todos:', error);
     throw new Error('Failed to search todos. Please try again.');
   }
-};
\ No newline at end of file
+};
+
+// Live changes from other users as Server-Sent Events. EventSource reconnects on its own and
+// resumes from the last event it saw; on 'reset' the server could not replay everything and the
+// list has to be reloaded. Returns a function that closes the subscription.
+export const subscribeToChanges = (onChange, onReset) => {
+  const source = new EventSource(`${API_URL}/changes`);
+  ['CREATED', 'UPDATED', 'DELETED'].forEach((type) => {
+    source.addEventListener(type, (event) => onChange(JSON.parse(event.data)));
+  });
+  source.addEventListener('reset', () => onReset());
+  return () => source.close();
+};